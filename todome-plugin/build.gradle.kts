@@ -43,3 +43,27 @@ val functionalTestTask = tasks.register<Test>("functionalTest") {
 tasks.check {
     dependsOn(functionalTestTask)
 }
+
+val jmh by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.36")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.36")
+}
+
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH benchmarks, pass -PjmhArgs='<regex> -p parallelism=1,4' to narrow them down."
+    group = "verification"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val results = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(results)
+    outputs.upToDateWhen { false }
+    args((findProperty("jmhArgs") as String?)?.split(" ") ?: emptyList<String>())
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("-rf", "json", "-rff", results.get().asFile.also { it.parentFile.mkdirs() }.path)
+    })
+}
@@ -0,0 +1,131 @@
+package com.yahorbarkouski.todome;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChangedFilesFunctionalTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+    private File srcDir;
+
+    @Before
+    public void setup() throws IOException, InterruptedException {
+        writeString(testProjectDir.newFile("settings.gradle.kts"), "");
+        writeString(
+                testProjectDir.newFile("build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+                        """
+        );
+        srcDir = testProjectDir.newFolder("src");
+        writeString(new File(srcDir, "Changed.java"), "// TODO: committed without a due date\nclass Changed {\n}\n");
+        writeString(new File(srcDir, "Unchanged.java"), "// TODO: committed without a due date\n");
+        git("init", "--quiet");
+        git("add", ".");
+        git("-c", "user.name=todome", "-c", "user.email=todome@example.com", "commit", "--quiet", "--no-gpg-sign", "-m", "initial");
+
+        writeString(new File(srcDir, "Changed.java"), "// TODO: committed without a due date\nclass Changed {\n// TODO: added without a due date\n}\n");
+        writeString(new File(srcDir, "Added.java"), "// TODO: added without a due date\n");
+    }
+
+    @Test
+    public void onlyChangedFilesAreScanned() {
+        BuildResult result = runner("verifyTodos", "-PtodomeSince=HEAD", "--configuration-cache").buildAndFail();
+
+        assertEquals(3, countLines(result, "TODO in"));
+        assertTrue(result.getOutput().contains("Changed.java:1:1"));
+        assertTrue(result.getOutput().contains("Changed.java:3:1"));
+        assertTrue(result.getOutput().contains("Added.java:1:1"));
+        assertFalse(result.getOutput().contains("Unchanged.java"));
+    }
+
+    @Test
+    public void onlyChangedLinesAreReportedWhenAsked() {
+        BuildResult result = runner("verifyTodos", "-PtodomeSince=HEAD", "-PtodomeChangedLinesOnly").buildAndFail();
+
+        assertEquals(2, countLines(result, "TODO in"));
+        assertTrue(result.getOutput().contains("Changed.java:3:1"));
+        assertTrue(result.getOutput().contains("Added.java:1:1"));
+    }
+
+    @Test
+    public void changesOfABaseBranchThatMovedOnAreNotReported() throws IOException, InterruptedException {
+        git("branch", "base");
+        git("checkout", "--quiet", "base");
+        // the todo is solved upstream, so that the working tree looks like it brings it back when compared with the base
+        writeString(new File(srcDir, "Unchanged.java"), "// solved upstream\n");
+        git("add", "src/Unchanged.java");
+        git("-c", "user.name=todome", "-c", "user.email=todome@example.com", "commit", "--quiet", "--no-gpg-sign", "-m", "upstream");
+        git("checkout", "--quiet", "-");
+
+        BuildResult result = runner("verifyTodos", "-PtodomeSince=base", "-PtodomeChangedLinesOnly").buildAndFail();
+
+        assertEquals(2, countLines(result, "TODO in"));
+        assertTrue(result.getOutput().contains("Changed.java:3:1"));
+        assertTrue(result.getOutput().contains("Added.java:1:1"));
+        assertFalse(result.getOutput().contains("Unchanged.java"));
+    }
+
+    @Test
+    public void scanningChangedFilesKeepsTheOthersInTheIndex() {
+        runner("verifyTodos", "--info").buildAndFail();
+        runner("verifyTodos", "-PtodomeSince=HEAD").buildAndFail();
+
+        BuildResult result = runner("verifyTodos", "--info").buildAndFail();
+
+        assertTrue(result.getOutput().contains("scanned 5 files"));
+        assertTrue(result.getOutput().contains("5 served from the index"));
+    }
+
+    @Test
+    public void unknownBaseRevisionFailsTheBuild() {
+        BuildResult result = runner("verifyTodos", "-PtodomeSince=no-such-branch").buildAndFail();
+
+        assertTrue(result.getOutput().contains("Failed to list the changes since no-such-branch"));
+    }
+
+    private GradleRunner runner(String... arguments) {
+        return GradleRunner.create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withArguments(arguments)
+                .withPluginClasspath();
+    }
+
+    private long countLines(BuildResult result, String text) {
+        return result.getOutput().lines().filter(line -> line.contains(text)).count();
+    }
+
+    private void git(String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of("git"));
+        command.addAll(List.of(arguments));
+        Process process = new ProcessBuilder(command)
+                .directory(testProjectDir.getRoot())
+                .inheritIO()
+                .start();
+        assertEquals(0, process.waitFor());
+    }
+
+    private void writeString(File file, String string) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(string);
+        }
+    }
+}
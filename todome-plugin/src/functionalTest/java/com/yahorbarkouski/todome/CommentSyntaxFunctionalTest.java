@@ -0,0 +1,96 @@
+package com.yahorbarkouski.todome;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CommentSyntaxFunctionalTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    @Before
+    public void setup() throws IOException {
+        writeString(testProjectDir.newFile("settings.gradle.kts"), "");
+        File srcDir = testProjectDir.newFolder("src");
+        writeString(new File(srcDir, "Test.java"), "// TODO: should be solved by @yahor due to 10.10.2030\n");
+        writeString(new File(srcDir, "V1__init.sql"), "CREATE TABLE todo (id INT); -- TODO: index it, @kate due to 12.10.2030\n");
+        writeString(new File(srcDir, "config.yml"), "key: 'not # TODO: @nobody'\n# TODO: split the config, @olga due to 14.10.2030\n");
+        writeString(new File(srcDir, "init.lua"), "--[[ TODO: port to Kotlin, @anna due to 16.10.2030 ]]\nprint('-- TODO: @nobody')\n");
+    }
+
+    @Test
+    public void everyLanguageIsScannedInASingleWalk() throws IOException {
+        writeBuildFile("""
+                commentSyntax("sql")
+                commentSyntax("yaml")
+                commentSyntax("lua") {
+                    extensions = listOf(".lua")
+                    lineComment("--")
+                    blockComment("--[[", "]]")
+                    rawQuote("'")
+                }
+                """);
+
+        BuildResult result = runner("listTodos").build();
+
+        String output = result.getOutput();
+        assertTrue(output.contains("yahor"));
+        assertTrue(output.contains("V1__init.sql:1:29"));
+        assertTrue(output.contains("kate"));
+        assertTrue(output.contains("config.yml:2:1"));
+        assertTrue(output.contains("olga"));
+        assertTrue(output.contains("init.lua:1:1"));
+        assertTrue(output.contains("anna"));
+        assertFalse(output.contains("nobody"));
+    }
+
+    @Test
+    public void onlyJvmSourcesAreScannedByDefault() throws IOException {
+        writeBuildFile("");
+
+        BuildResult result = runner("listTodos").build();
+
+        assertTrue(result.getOutput().contains("yahor"));
+        assertFalse(result.getOutput().contains("kate"));
+        assertFalse(result.getOutput().contains("olga"));
+    }
+
+    private void writeBuildFile(String configuration) throws IOException {
+        writeString(
+                new File(testProjectDir.getRoot(), "build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+                        todome {
+                        %s
+                        }
+                        """.formatted(configuration)
+        );
+    }
+
+    private GradleRunner runner(String... arguments) {
+        return GradleRunner.create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withArguments(arguments)
+                .withPluginClasspath();
+    }
+
+    private void writeString(File file, String string) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(string);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.yahorbarkouski.todome;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigurationCacheFunctionalTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+    private File srcDir;
+
+    @Before
+    public void setup() throws IOException {
+        writeString(testProjectDir.newFile("settings.gradle.kts"), "");
+        writeString(
+                testProjectDir.newFile("build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+                        tasks.configureEach {
+                            println("Realized task " + name)
+                        }
+                        """
+        );
+        srcDir = testProjectDir.newFolder("src");
+        writeString(
+                new File(srcDir, "Test.java"),
+                """
+                        // TODO: should be solved by @yahor due to 10.10.2023
+                        // TODO: should be solved by @damna due to 10.10.2999
+                        """
+        );
+    }
+
+    @Test
+    public void tasksAreNotRealizedWhenNotRun() {
+        BuildResult result = runner("help").build();
+
+        assertFalse(result.getOutput().contains("Realized task scanTodos"));
+        assertFalse(result.getOutput().contains("Realized task verifyTodos"));
+        assertFalse(result.getOutput().contains("Realized task listTodos"));
+    }
+
+    @Test
+    public void warmBuildReusesTheConfigurationCache() {
+        runner("listTodos", "--configuration-cache").build();
+        BuildResult result = runner("listTodos", "--configuration-cache").build();
+
+        assertTrue(result.getOutput().contains("Reusing configuration cache."));
+        assertFalse(result.getOutput().contains("Realized task"));
+        assertEquals("UP_TO_DATE", Objects.requireNonNull(result.task(":listTodos")).getOutcome().name());
+    }
+
+    @Test
+    public void listingPropertiesAreReadOnEveryBuild() {
+        BuildResult yahor = runner("listTodos", "-Passignee=yahor", "--configuration-cache").build();
+        BuildResult damna = runner("listTodos", "-Passignee=damna", "--configuration-cache").build();
+
+        assertTrue(yahor.getOutput().contains("yahor"));
+        assertFalse(yahor.getOutput().contains("damna"));
+        assertTrue(damna.getOutput().contains("damna"));
+        assertFalse(damna.getOutput().contains("yahor"));
+    }
+
+    @Test
+    public void overdueTodosAreCheckedWhenTheConfigurationIsReused() {
+        runner("listTodos", "-Poverdue=true", "--configuration-cache").buildAndFail();
+        BuildResult result = runner("listTodos", "-Poverdue=true", "--configuration-cache").buildAndFail();
+
+        assertTrue(result.getOutput().contains("Reusing configuration cache."));
+        assertTrue(result.getOutput().contains("Found TODOs with due dates in the past"));
+        assertFalse(result.getOutput().contains("damna"));
+    }
+
+    private GradleRunner runner(String... arguments) {
+        return GradleRunner.create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withArguments(arguments)
+                .withPluginClasspath();
+    }
+
+    private void writeString(File file, String string) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(string);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.yahorbarkouski.todome;
 
 import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.BuildTask;
 import org.gradle.testkit.runner.GradleRunner;
 import org.junit.Before;
 import org.junit.Rule;
@@ -145,6 +146,60 @@ public class ListTodosFunctionalTest {
         assertTrue(todoLines.get(2).contains("2023-09-10"));
     }
 
+    @Test
+    public void verifyAndListTodosShareASingleScan() throws IOException {
+        File srcFile = new File(srcDir, "Test.java");
+        writeString(srcFile, "// TODO: should be solved by @yahor due to 10.10.2023\n");
+
+        BuildResult result = GradleRunner.create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withArguments("verifyTodos", "listTodos")
+                .withPluginClasspath()
+                .build();
+
+        assertEquals("SUCCESS", Objects.requireNonNull(result.task(":scanTodos")).getOutcome().name());
+        assertEquals("SUCCESS", Objects.requireNonNull(result.task(":verifyTodos")).getOutcome().name());
+        assertEquals("SUCCESS", Objects.requireNonNull(result.task(":listTodos")).getOutcome().name());
+        assertEquals(List.of(":scanTodos", ":verifyTodos", ":listTodos"), result.getTasks().stream()
+                .map(BuildTask::getPath)
+                .toList());
+        assertTrue(result.getOutput().contains("due date of 2023-10-10"));
+    }
+
+    @Test
+    public void topListsTodosSharingADueDateUpToTheLimit() throws IOException {
+        writeString(
+                new File(srcDir, "Test.java"),
+                """
+                    // TODO: first by @yahor due to 10.10.2030
+                    // TODO: second by @yahor due to 10.10.2030
+                    // TODO: third by @yahor due to 10.10.2030
+                    // TODO: earlier by @yahor due to 01.10.2030
+                """
+        );
+
+        BuildResult all = GradleRunner.create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withArguments("listTodos", "-Psort=asc")
+                .withPluginClasspath()
+                .build();
+        List<String> allLines = all.getOutput().lines().filter(line -> line.contains("TODO in")).toList();
+        assertEquals(4, allLines.size());
+        assertTrue(allLines.get(0).contains("Test.java:4:"));
+        assertTrue(allLines.get(1).contains("Test.java:1:"));
+        assertTrue(allLines.get(3).contains("Test.java:3:"));
+
+        BuildResult top = GradleRunner.create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withArguments("listTodos", "-Psort=asc", "--top", "2")
+                .withPluginClasspath()
+                .build();
+        List<String> topLines = top.getOutput().lines().filter(line -> line.contains("TODO in")).toList();
+        assertEquals(2, topLines.size());
+        assertTrue(topLines.get(0).contains("Test.java:4:"));
+        assertTrue(topLines.get(1).contains("Test.java:1:"));
+    }
+
     private void writeString(File file, String string) throws IOException {
         try (Writer writer = new FileWriter(file)) {
             writer.append(string);
@@ -0,0 +1,94 @@
+package com.yahorbarkouski.todome;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LiveIndexFunctionalTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+    private File srcDir;
+
+    @Before
+    public void setup() throws IOException {
+        writeString(testProjectDir.newFile("settings.gradle.kts"), "");
+        writeString(
+                testProjectDir.newFile("build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+                        """
+        );
+        srcDir = testProjectDir.newFolder("src");
+        writeString(new File(srcDir, "Changed.java"), "// TODO: should be solved by @yahor due to 10.10.2030\n");
+        writeString(new File(srcDir, "Removed.java"), "// TODO: should be solved by @damna due to 11.10.2030\n");
+        writeString(new File(srcDir, "Unchanged.java"), "// TODO: should be solved by @kate due to 12.10.2030\n");
+    }
+
+    @Test
+    public void onlyChangedFilesAreScannedAgain() throws IOException {
+        BuildResult first = runner("listTodos", "-PtodomeLiveIndex", "--info").build();
+        assertFalse(first.getOutput().contains("in the live TODO index"));
+
+        writeString(new File(srcDir, "Changed.java"), "// TODO: should be solved by @yahor due to 10.10.2030\n// TODO: @anna due to 13.10.2030\n");
+        writeString(new File(srcDir, "Added.java"), "// TODO: should be solved by @olga due to 14.10.2030\n");
+        assertTrue(new File(srcDir, "Removed.java").delete());
+
+        BuildResult second = runner("listTodos", "-PtodomeLiveIndex", "--info").build();
+
+        String output = second.getOutput();
+        assertTrue(output.contains("updated 2 changed files in the live TODO index of 5 files"));
+        assertTrue(output.contains("yahor"));
+        assertTrue(output.contains("anna"));
+        assertTrue(output.contains("kate"));
+        assertTrue(output.contains("olga"));
+        assertFalse(output.contains("damna"));
+    }
+
+    @Test
+    public void changedSettingsRescanAllFiles() throws IOException {
+        runner("listTodos", "-PtodomeLiveIndex", "--info").build();
+        writeString(
+                new File(testProjectDir.getRoot(), "build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+                        todome {
+                            mentionSymbol = "#"
+                        }
+                        """
+        );
+
+        BuildResult result = runner("listTodos", "-PtodomeLiveIndex", "--info").build();
+
+        assertFalse(result.getOutput().contains("in the live TODO index"));
+        assertTrue(result.getOutput().contains("unassigned"));
+    }
+
+    private GradleRunner runner(String... arguments) {
+        return GradleRunner.create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withArguments(arguments)
+                .withPluginClasspath();
+    }
+
+    private void writeString(File file, String string) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(string);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.yahorbarkouski.todome;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MultiProjectFunctionalTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    @Before
+    public void setup() throws IOException {
+        writeString(testProjectDir.newFile("settings.gradle.kts"), "include(\"core\", \"app\")");
+        writeString(
+                testProjectDir.newFile("build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+                        """
+        );
+        for (String subproject : new String[]{"core", "app"}) {
+            writeString(
+                    new File(testProjectDir.newFolder(subproject), "build.gradle.kts"),
+                    """
+                            plugins {
+                                id("com.yahorbarkouski.todome")
+                            }
+                            """
+            );
+            File srcDir = testProjectDir.newFolder(subproject, "src");
+            writeString(new File(srcDir, "Test.java"), "// TODO: " + subproject + " is missing a due date");
+        }
+        writeString(new File(testProjectDir.newFolder("src"), "Test.java"), "// TODO: root is missing a due date");
+    }
+
+    @Test
+    public void everyProjectScansOnlyItsOwnSources() {
+        BuildResult result = runner(":verifyTodos", ":core:verifyTodos", "--continue").buildAndFail();
+
+        assertEquals("FAILED", Objects.requireNonNull(result.task(":verifyTodos")).getOutcome().name());
+        assertEquals("FAILED", Objects.requireNonNull(result.task(":core:verifyTodos")).getOutcome().name());
+        assertEquals(1, countLines(result, testProjectDir.getRoot() + File.separator + "src" + File.separator + "Test.java"));
+        assertEquals(1, countLines(result, "core" + File.separator + "src"));
+        assertEquals(0, countLines(result, "app" + File.separator + "src"));
+    }
+
+    @Test
+    public void aggregateTaskMergesTheReportsOfAllProjects() {
+        BuildResult result = runner("verifyAllTodos", "--parallel", "--configuration-cache").buildAndFail();
+
+        assertEquals("SUCCESS", Objects.requireNonNull(result.task(":core:scanTodos")).getOutcome().name());
+        assertEquals("SUCCESS", Objects.requireNonNull(result.task(":app:scanTodos")).getOutcome().name());
+        assertEquals("FAILED", Objects.requireNonNull(result.task(":verifyAllTodos")).getOutcome().name());
+        assertFalse(result.getTasks().stream().anyMatch(task -> task.getPath().endsWith(":verifyTodos")));
+        assertEquals(3, countLines(result, "TODO in"));
+        assertFalse(result.getOutput().contains("Configuration cache problems"));
+        assertTrue(result.getOutput().contains("core" + File.separator + "src" + File.separator + "Test.java"));
+        assertTrue(result.getOutput().contains("app" + File.separator + "src" + File.separator + "Test.java"));
+    }
+
+    @Test
+    public void aggregateTaskReportsTheTodosOfAScanStoppedByItsProject() throws IOException {
+        writeString(
+                new File(testProjectDir.getRoot(), "core/build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+
+                        todome {
+                            maxViolations = 2
+                        }
+                        """
+        );
+        for (int file = 0; file < 10; file++) {
+            writeString(new File(testProjectDir.getRoot(), "core/src/Test" + file + ".java"), "// TODO: without a due date");
+        }
+
+        BuildResult result = runner("verifyAllTodos", "--info").buildAndFail();
+
+        assertTrue(result.getOutput().contains(":core:scanTodos: stopped scanning after 2 TODOs without a due date"));
+        assertEquals(2, countLines(result, "core" + File.separator + "src"));
+        assertEquals(4, countLines(result, "TODO in"));
+        assertTrue(result.getOutput().contains("Stopped after 4 TODOs without a valid due date."));
+        assertFalse(result.getOutput().contains("is incomplete"));
+    }
+
+    private GradleRunner runner(String... arguments) {
+        return GradleRunner.create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withArguments(arguments)
+                .withPluginClasspath();
+    }
+
+    private static long countLines(BuildResult result, String text) {
+        return Arrays.stream(result.getOutput().split("\n")).filter(line -> line.contains(text)).count();
+    }
+
+    private void writeString(File file, String string) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(string);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.yahorbarkouski.todome;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SourceArchiveFunctionalTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    @Before
+    public void setup() throws IOException {
+        writeString(testProjectDir.newFile("settings.gradle.kts"), "");
+        File srcDir = testProjectDir.newFolder("src");
+        writeString(new File(srcDir, "Test.java"), "// TODO: should be solved by @yahor due to 10.10.2030\n");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(new File(srcDir, "vendor-sources.jar")))) {
+            out.putNextEntry(new ZipEntry("com/vendor/Vendored.java"));
+            out.write("package com.vendor;\n\n// TODO: should be solved by @kate due to 12.10.2030\n".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("com/vendor/Plain.java"));
+            out.write("package com.vendor;\n".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("com/vendor/notes.txt"));
+            out.write("// TODO: not a source by @olga\n".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+    }
+
+    @Test
+    public void archivesAreScannedWhenIncluded() throws IOException {
+        writeBuildFile("archiveIncludes = listOf(\"**/*-sources.jar\")");
+
+        BuildResult result = runner("listTodos").build();
+
+        String output = result.getOutput();
+        assertTrue(output.contains("yahor"));
+        assertTrue(output.contains("vendor-sources.jar!/com/vendor/Vendored.java:3:"));
+        assertTrue(output.contains("kate"));
+        assertFalse(output.contains("olga"));
+    }
+
+    @Test
+    public void archiveWithSeveralEntriesCountsAsOneFile() throws IOException {
+        writeBuildFile("archiveIncludes = listOf(\"**/*-sources.jar\")");
+
+        // the build scripts are scanned as well, and rejected by the prefilter
+        BuildResult parsed = runner("listTodos", "--info").build();
+        BuildResult indexed = runner("listTodos", "--info", "--rerun-tasks").build();
+
+        assertTrue(parsed.getOutput().contains("scanned 4 files"));
+        assertTrue(parsed.getOutput().contains("0 served from the index, 2 rejected by the TODO prefilter, 2 parsed"));
+        assertTrue(indexed.getOutput().contains("4 served from the index, 0 rejected by the TODO prefilter, 0 parsed"));
+    }
+
+    @Test
+    public void touchedArchiveWithSameContentIsServedFromTheIndex() throws IOException {
+        writeBuildFile("archiveIncludes = listOf(\"**/*-sources.jar\")");
+        File archive = new File(testProjectDir.getRoot(), "src/vendor-sources.jar");
+
+        runner("listTodos").build();
+        assertTrue(archive.setLastModified(archive.lastModified() - 10_000));
+        BuildResult result = runner("listTodos", "--info", "--rerun-tasks").build();
+
+        assertTrue(result.getOutput().contains("4 served from the index, 0 rejected by the TODO prefilter, 0 parsed"));
+        assertTrue(result.getOutput().contains("vendor-sources.jar!/com/vendor/Vendored.java:3:"));
+    }
+
+    @Test
+    public void archivesAreSkippedByDefault() throws IOException {
+        writeBuildFile("");
+
+        BuildResult result = runner("listTodos").build();
+
+        assertTrue(result.getOutput().contains("yahor"));
+        assertFalse(result.getOutput().contains("kate"));
+    }
+
+    private void writeBuildFile(String configuration) throws IOException {
+        writeString(
+                new File(testProjectDir.getRoot(), "build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+                        todome {
+                            %s
+                        }
+                        """.formatted(configuration)
+        );
+    }
+
+    private GradleRunner runner(String... arguments) {
+        return GradleRunner.create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withArguments(arguments)
+                .withPluginClasspath();
+    }
+
+    private void writeString(File file, String string) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(string);
+        }
+    }
+}
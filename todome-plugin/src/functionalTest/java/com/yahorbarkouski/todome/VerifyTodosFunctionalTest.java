@@ -12,9 +12,13 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -106,6 +110,283 @@ public class VerifyTodosFunctionalTest {
         assertEquals("SUCCESS", Objects.requireNonNull(result.task(":verifyTodos")).getOutcome().name());
     }
 
+    @Test
+    public void taskIsUpToDateAndCacheableWhenSourcesDidNotChange() throws IOException {
+        writeString(
+                new File(testProjectDir.getRoot(), "settings.gradle.kts"),
+                """
+                        buildCache {
+                            local {
+                                directory = rootDir.resolve("build-cache")
+                            }
+                        }
+                        """
+        );
+        File srcFile = new File(srcDir, "Test.java");
+        writeString(srcFile, "// TODO: this comment contain due to 10.10.2023, text");
+
+        BuildResult result = runVerifyTodos("--build-cache");
+        assertEquals("SUCCESS", Objects.requireNonNull(result.task(":verifyTodos")).getOutcome().name());
+
+        result = runVerifyTodos("--build-cache");
+        assertEquals("UP_TO_DATE", Objects.requireNonNull(result.task(":verifyTodos")).getOutcome().name());
+
+        assertTrue(new File(testProjectDir.getRoot(), "build/todome/verifyTodos.txt").delete());
+        result = runVerifyTodos("--build-cache");
+        assertEquals("FROM_CACHE", Objects.requireNonNull(result.task(":verifyTodos")).getOutcome().name());
+
+        writeString(srcFile, "// TODO: this comment contain due to 10.11.2023, text");
+        result = runVerifyTodos("--build-cache");
+        assertEquals("SUCCESS", Objects.requireNonNull(result.task(":verifyTodos")).getOutcome().name());
+    }
+
+    @Test
+    public void excludedAndGitIgnoredDirectoriesAreNotScanned() throws IOException {
+        writeString(
+                new File(testProjectDir.getRoot(), "build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+
+                        todome {
+                            excludes = excludes + "**/vendor/**"
+                            isRespectGitignore = true
+                        }
+                        """
+        );
+        writeString(new File(testProjectDir.getRoot(), ".gitignore"), "generated/\n");
+        for (String dir : List.of("build/classes", "vendor/lib", "src/generated")) {
+            File excludedDir = testProjectDir.newFolder(dir.split("/"));
+            writeString(new File(excludedDir, "Test.java"), "// TODO: This comment does not contain a due date");
+        }
+        writeString(new File(srcDir, "Test.java"), "// TODO: this comment contain due to 10.10.2023, text");
+
+        BuildResult result = runVerifyTodos();
+
+        assertEquals("SUCCESS", Objects.requireNonNull(result.task(":verifyTodos")).getOutcome().name());
+    }
+
+    @Test
+    public void taskStopsReportingAfterMaxViolations() throws IOException {
+        writeString(
+                new File(testProjectDir.getRoot(), "build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+
+                        tasks.named<com.yahorbarkouski.todome.task.VerifyTodosTask>("verifyTodos") {
+                            maxViolations.set(2)
+                        }
+                        """
+        );
+        writeString(new File(srcDir, "Test.java"), "// TODO: first\n// TODO: second\n// TODO: third\n");
+
+        try {
+            runVerifyTodos();
+            fail();
+        } catch (UnexpectedBuildFailure e) {
+            String output = e.getBuildResult().getOutput();
+            assertEquals(2, output.lines().filter(line -> line.contains("TODO in")).count());
+            // the scan itself covered every file, only the task stopped reading its report
+            assertFalse(output.contains("Stopped after"));
+        }
+    }
+
+    @Test
+    public void exactlyMaxViolationsAreNotReportedAsAStoppedScan() throws IOException {
+        writeString(
+                new File(testProjectDir.getRoot(), "build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+
+                        tasks.named<com.yahorbarkouski.todome.task.VerifyTodosTask>("verifyTodos") {
+                            maxViolations.set(3)
+                        }
+                        """
+        );
+        writeString(new File(srcDir, "Test.java"), "// TODO: first\n// TODO: second\n// TODO: third\n");
+
+        try {
+            runVerifyTodos();
+            fail();
+        } catch (UnexpectedBuildFailure e) {
+            String output = e.getBuildResult().getOutput();
+            assertEquals(3, output.lines().filter(line -> line.contains("TODO in")).count());
+            assertFalse(output.contains("Stopped after"));
+        }
+    }
+
+    @Test
+    public void maxViolationsStopsTheScanEarly() throws IOException {
+        writeString(
+                new File(testProjectDir.getRoot(), "build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+
+                        todome {
+                            maxViolations = 3
+                        }
+                        """
+        );
+        for (int file = 0; file < 20; file++) {
+            writeString(new File(srcDir, "Test" + file + ".java"), "// TODO: without a due date\n");
+        }
+
+        try {
+            runVerifyTodos("--info");
+            fail();
+        } catch (UnexpectedBuildFailure e) {
+            String output = e.getBuildResult().getOutput();
+            assertEquals(3, output.lines().filter(line -> line.contains("TODO in")).count());
+            assertTrue(output.contains("Stopped after 3 TODOs without a valid due date."));
+            assertTrue(output.contains(":scanTodos: stopped scanning after 3 TODOs without a due date"));
+        }
+    }
+
+    @Test
+    public void failFastDoesNotCutTheScanShortForListingTasks() throws IOException {
+        for (int file = 0; file < 20; file++) {
+            writeString(new File(srcDir, "Test" + file + ".java"), "// TODO: without a due date\n");
+        }
+        writeString(new File(srcDir, "Zest.java"), "// TODO: due to 01.01.2030\n");
+
+        try {
+            runVerifyTodos("listTodos", "--continue", "--info", "-PfailFast");
+            fail();
+        } catch (UnexpectedBuildFailure e) {
+            String output = e.getBuildResult().getOutput();
+            assertEquals(10, output.lines().filter(line -> line.contains("TODO in") && line.contains("without a valid due date")).count());
+            assertTrue(output.contains("Zest.java:1:1"));
+            assertTrue(output.lines().noneMatch(line -> line.contains("stopped scanning")));
+        }
+    }
+
+    @Test
+    public void failFastDoesNotCutTheScanShortForTasksDependingOnListings() throws IOException {
+        writeString(
+                new File(testProjectDir.getRoot(), "build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+
+                        tasks.register("todoDigest") {
+                            dependsOn("listTodos")
+                        }
+                        """
+        );
+        for (int file = 0; file < 20; file++) {
+            writeString(new File(srcDir, "Test" + file + ".java"), "// TODO: without a due date\n");
+        }
+
+        try {
+            runVerifyTodos("todoDigest", "--continue", "--info", "-PfailFast");
+            fail();
+        } catch (UnexpectedBuildFailure e) {
+            String output = e.getBuildResult().getOutput();
+            assertEquals("SUCCESS", Objects.requireNonNull(e.getBuildResult().task(":listTodos")).getOutcome().name());
+            assertTrue(output.lines().noneMatch(line -> line.contains("stopped scanning")));
+        }
+    }
+
+    @Test
+    public void failFastStopsTheScanForAbbreviatedVerifyTasks() throws IOException {
+        for (int file = 0; file < 20; file++) {
+            writeString(new File(srcDir, "Test" + file + ".java"), "// TODO: without a due date\n");
+        }
+
+        try {
+            GradleRunner.create()
+                    .withProjectDir(testProjectDir.getRoot())
+                    .withArguments("vT", "--info", "-PfailFast")
+                    .withPluginClasspath()
+                    .build();
+            fail();
+        } catch (UnexpectedBuildFailure e) {
+            String output = e.getBuildResult().getOutput();
+            assertTrue(output.contains(":scanTodos: stopped scanning after 10 TODOs without a due date"));
+            assertTrue(output.contains("Stopped after 10 TODOs without a valid due date."));
+        }
+    }
+
+    @Test
+    public void reportsAreWrittenInTheSelectedFormatsAndTheConsoleIsCapped() throws IOException {
+        writeString(
+                new File(testProjectDir.getRoot(), "build.gradle.kts"),
+                """
+                        plugins {
+                            id("com.yahorbarkouski.todome")
+                        }
+
+                        todome {
+                            reportFormats = listOf("json", "sarif", "csv")
+                            consoleLimit = 2
+                        }
+                        """
+        );
+        writeString(new File(srcDir, "Test.java"), "// TODO: one\n// TODO: two\n// TODO: three\n// TODO: four\n");
+
+        try {
+            runVerifyTodos();
+            fail();
+        } catch (UnexpectedBuildFailure e) {
+            String output = e.getBuildResult().getOutput();
+            assertEquals(2, output.lines().filter(line -> line.contains("TODO in")).count());
+            assertTrue(output.contains("... and 2 more TODOs, 4 in total, see "));
+        }
+
+        File reports = new File(testProjectDir.getRoot(), "build/todome");
+        String json = Files.readString(new File(reports, "verifyTodos.json").toPath());
+        assertTrue(json.contains("{\"path\":\"src/Test.java\",\"line\":4,\"column\":1,\"assignee\":\"unassigned\",\"dueDate\":null}"));
+        String sarif = Files.readString(new File(reports, "verifyTodos.sarif").toPath());
+        assertEquals(4, sarif.split("\"ruleId\": \"todo-without-due-date\"", -1).length - 1);
+        List<String> csv = Files.readAllLines(new File(reports, "verifyTodos.csv").toPath());
+        assertEquals(List.of("path,line,column,assignee,dueDate", "src/Test.java,1,1,unassigned,"), csv.subList(0, 2));
+        assertEquals(5, csv.size());
+    }
+
+    @Test
+    public void metricsAreWrittenWhenAskedFor() throws IOException {
+        writeString(new File(srcDir, "Test.java"), "// TODO: should be solved by @yahor due to 10.10.2030\n");
+
+        BuildResult result = runVerifyTodos("-PtodomeMetrics", "--info");
+
+        assertTrue(result.getOutput().contains(":scanTodos: walk "));
+        assertTrue(result.getOutput().contains(" files/s, "));
+        assertTrue(result.getOutput().contains(":verifyTodos: report "));
+        File reports = new File(testProjectDir.getRoot(), "build/todome");
+        String scanMetrics = Files.readString(new File(reports, "scanTodos-metrics.json").toPath());
+        assertTrue(scanMetrics.contains("\"filesParsed\": 1"));
+        assertTrue(scanMetrics.contains("\"parse\": {\"wallTimeMs\": "));
+        assertTrue(scanMetrics.contains("{\"path\": \"src/Test.java\", \"bytes\": "));
+        assertTrue(new File(reports, "verifyTodos-metrics.json").isFile());
+    }
+
+    @Test
+    public void metricsAreNotWrittenByDefault() throws IOException {
+        writeString(new File(srcDir, "Test.java"), "// TODO: should be solved by @yahor due to 10.10.2030\n");
+
+        runVerifyTodos();
+
+        assertFalse(new File(testProjectDir.getRoot(), "build/todome/scanTodos-metrics.json").exists());
+    }
+
+    private BuildResult runVerifyTodos(String... arguments) {
+        List<String> allArguments = new ArrayList<>(List.of("verifyTodos"));
+        allArguments.addAll(List.of(arguments));
+        return GradleRunner.create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withArguments(allArguments)
+                .withPluginClasspath()
+                .build();
+    }
+
     private void writeString(File file, String string) throws IOException {
         try (Writer writer = new FileWriter(file)) {
             writer.write(string);
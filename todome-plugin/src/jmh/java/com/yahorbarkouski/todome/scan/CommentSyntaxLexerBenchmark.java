@@ -0,0 +1,87 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the DOTALL regular expression todos used to be matched with and the table-driven
+ * {@link CommentSyntaxLexer} compiled from the JVM comment syntax, which scans use.
+ * <ul>
+ *     <li>{@code regular} is a typical source file with a few todos</li>
+ *     <li>{@code blockComments} is a generated file made of block comments without any todo, followed by a single
+ *     todo at the very end, which makes the lazy {@code /\*.*?TODO} alternative rescan the rest of the file from every
+ *     comment opening</li>
+ *     <li>{@code unterminated} is a file with an unterminated block comment opening on every line</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentSyntaxLexerBenchmark {
+
+    // the regular expression todos used to be matched with, kept as the baseline of the lexer
+    private static final Pattern TODO_PATTERN = Pattern.compile(
+            "(//.?TODO[^\\n]*|/\\*.*?TODO[^*]*\\*/)",
+            Pattern.DOTALL
+    );
+
+    @Param({"regular", "blockComments", "unterminated"})
+    public String input;
+
+    @Param({"2000"})
+    public int lines;
+
+    private String content;
+    private CommentSyntaxLexer syntaxLexer;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        for (int line = 0; line < lines; line++) {
+            switch (input) {
+                case "regular" -> builder.append(line % 50 == 0
+                        ? "    // TODO: refactor by @owner due to 10.10.2030\n"
+                        : "    int field" + line + " = compute(\"value\", " + line + ");\n");
+                case "blockComments" -> builder.append("    /* generated member ").append(line).append(" */ int f")
+                        .append(line).append(";\n");
+                case "unterminated" -> builder.append("    String s").append(line).append(" = \"/*\";\n");
+                default -> throw new IllegalArgumentException(input);
+            }
+        }
+        content = builder.append("// TODO: the only todo\n").toString();
+        syntaxLexer = new CommentSyntaxLexer(CommentSyntax.jvm());
+    }
+
+    @Benchmark
+    public int regex() {
+        int count = 0;
+        Matcher matcher = TODO_PATTERN.matcher(content);
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int syntaxLexer() {
+        int[] count = new int[1];
+        syntaxLexer.scan(content, (textStart, textEnd, line, column) -> count[0]++);
+        return count[0];
+    }
+}
@@ -0,0 +1,77 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of locating the due date prefix of 1000 todo comments as the number of configured prefixes grows.
+ * {@code linear} looks for every prefix in turn, as prefixes used to be matched, {@code automaton} looks for all of them
+ * at once through a {@link PrefixAutomaton}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DueDatePrefixBenchmark {
+
+    @Param({"1", "4", "16", "64"})
+    public int prefixCount;
+
+    private List<String> prefixes;
+    private String[] comments;
+    private PrefixAutomaton automaton;
+
+    @Setup
+    public void setUp() {
+        prefixes = new ArrayList<>(List.of("due to"));
+        for (int i = 1; i < prefixCount; i++) {
+            prefixes.add("deadline " + i);
+        }
+        comments = new String[1000];
+        for (int i = 0; i < comments.length; i++) {
+            // every comment carries its prefix at the end, so that the linear search walks all the others before
+            comments[i] = "TODO: some longer description of what has to be done by @owner, "
+                    + prefixes.get(i % prefixCount) + " 10.10.2030";
+        }
+        automaton = new PrefixAutomaton(prefixes);
+    }
+
+    @Benchmark
+    public int linear() {
+        int sum = 0;
+        for (String comment : comments) {
+            for (String prefix : prefixes) {
+                int found = comment.indexOf(prefix);
+                if (found >= 0) {
+                    sum += found + prefix.length();
+                    break;
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int automaton() {
+        int sum = 0;
+        for (String comment : comments) {
+            sum += automaton.findEarliest(comment, 0, comment.length());
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,106 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Measures a full tree scan with and without reading files ahead of the workers. A warm page cache hides the cost
+ * of the disk, so every read is delayed by {@code readLatencyMicros} to stand in for a cold cache or a network file
+ * system; with reader threads that latency overlaps with parsing instead of adding up to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilePrefetcherBenchmark {
+
+    private static final CommentSyntaxLexer LEXER = new CommentSyntaxLexer(CommentSyntax.jvm());
+
+    @Param({"0", "2", "4"})
+    public int readerThreads;
+
+    @Param({"0", "500"})
+    public long readLatencyMicros;
+
+    @Param({"2"})
+    public int parallelism;
+
+    private Path root;
+    private List<File> files;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("todome-prefetch-bench");
+        SyntheticCorpus.tree(root, 16, 64, 200, 3, 10);
+        try (Stream<Path> paths = Files.walk(root.resolve("src"))) {
+            files = paths.filter(Files::isRegularFile).map(Path::toFile).toList();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticCorpus.delete(root);
+    }
+
+    @Benchmark
+    public List<TodoModel> scanTree() {
+        if (readerThreads <= 0) {
+            return new TodoScanEngine(parallelism, file -> true, file -> scanFile(read(file))).scan(files);
+        }
+        try (FilePrefetcher prefetcher = new FilePrefetcher(files, readerThreads, file -> true,
+                FilePrefetcher.DEFAULT_READ_AHEAD, FilePrefetcher.DEFAULT_BUDGET_BYTES, this::read)) {
+            return new TodoScanEngine(parallelism, file -> true, prefetcher.wrap(file -> {
+                ByteBuffer bytes = prefetcher.take(file);
+                return scanFile(bytes != null ? bytes : read(file));
+            })).scan(files);
+        }
+    }
+
+    private ByteBuffer read(File file) {
+        if (readLatencyMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(readLatencyMicros));
+        }
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<TodoModel> scanFile(ByteBuffer bytes) {
+        List<TodoModel> todos = new ArrayList<>();
+        if (!TodoPrefilter.containsTodo(bytes)) return todos;
+        LEXER.scan(
+                new SourceText(bytes, StandardCharsets.UTF_8),
+                (textStart, textEnd, line, column) -> todos.add(new TodoModel("unassigned", null, "", line, column))
+        );
+        return todos;
+    }
+}
@@ -0,0 +1,82 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-file cost of resolving the line and column of every todo of a 10k lines file, as the number of todos grows.
+ * {@code substringSplit} is how positions used to be calculated, {@code lineIndex} resolves the same offsets through
+ * a {@link LineIndex}, and {@code lexer} is the position tracking the {@link CommentSyntaxLexer} does while lexing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineColumnBenchmark {
+
+    private static final int LINES = 10_000;
+    private static final CommentSyntaxLexer LEXER = new CommentSyntaxLexer(CommentSyntax.jvm());
+
+    @Param({"10", "100", "1000"})
+    public int todos;
+
+    private String content;
+    private int[] offsets;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        offsets = new int[todos];
+        int found = 0;
+        for (int line = 0; line < LINES; line++) {
+            if (found < todos && line % (LINES / todos) == 0) {
+                builder.append("    ");
+                offsets[found++] = builder.length();
+                builder.append("// TODO: legacy code by @owner\n");
+            } else {
+                builder.append("    int field").append(line).append(" = ").append(line).append(";\n");
+            }
+        }
+        content = builder.toString();
+    }
+
+    @Benchmark
+    public long substringSplit() {
+        long sum = 0;
+        for (int offset : offsets) {
+            String[] lines = content.substring(0, offset).split("\n");
+            sum += lines.length + lines[lines.length - 1].length() + 1;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long lineIndex() {
+        long sum = 0;
+        LineIndex index = LineIndex.of(content);
+        for (int offset : offsets) {
+            sum += index.lineNumber(offset) + index.columnNumber(offset);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long lexer() {
+        long[] sum = new long[1];
+        LEXER.scan(content, (textStart, textEnd, line, column) -> sum[0] += line + column);
+        return sum[0];
+    }
+}
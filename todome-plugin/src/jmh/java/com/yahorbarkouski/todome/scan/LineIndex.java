@@ -0,0 +1,83 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * Offset to line and column resolution for a single text.
+ * The offsets every line starts at are collected once, in a single pass, after which every lookup is a binary search
+ * over them, so resolving the position of many todos in one file does not rescan the text for each of them.
+ * The benchmarks compare it with the positions the {@link CommentSyntaxLexer} tracks while lexing.
+ */
+public final class LineIndex {
+
+    // the last index built by a thread, reused as long as it is asked about the very same text
+    private static final ThreadLocal<LineIndex> lastIndex = new ThreadLocal<>();
+
+    private final WeakReference<CharSequence> text;
+    private final int[] lineStarts;
+    private final int lineCount;
+
+    private LineIndex(CharSequence text, int[] lineStarts, int lineCount) {
+        this.text = new WeakReference<>(text);
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Builds the index of the given text.
+     *
+     * @param text the text to index
+     * @return the line index of the text
+     */
+    public static LineIndex of(CharSequence text) {
+        int[] lineStarts = new int[16];
+        int lineCount = 1;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (text.charAt(i) == '\n') {
+                if (lineCount == lineStarts.length) {
+                    lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+                }
+                lineStarts[lineCount++] = i + 1;
+            }
+        }
+        return new LineIndex(text, lineStarts, lineCount);
+    }
+
+    /**
+     * Returns the index of the given text, reusing the one built by the last call on the current thread when it was
+     * made for the same text instance.
+     *
+     * @param text the text to index
+     * @return the line index of the text
+     */
+    public static LineIndex cached(CharSequence text) {
+        LineIndex index = lastIndex.get();
+        if (index == null || index.text.get() != text) {
+            index = of(text);
+            lastIndex.set(index);
+        }
+        return index;
+    }
+
+    /**
+     * @param offset the character offset
+     * @return the 1-based line the offset is located at
+     */
+    public int lineNumber(int offset) {
+        int found = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        return found >= 0 ? found + 1 : -found - 1;
+    }
+
+    /**
+     * @param offset the character offset
+     * @return the 1-based column the offset is located at
+     */
+    public int columnNumber(int offset) {
+        return offset - lineStarts[lineNumber(offset) - 1] + 1;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+}
@@ -0,0 +1,103 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates the synthetic sources the benchmarks run over. The content only depends on the given shape and seed, so
+ * that every run of a benchmark measures the very same corpus.
+ * <ul>
+ *     <li>{@code todoPercent} is the share of lines holding a todo, a mix of dated, undated, assigned and block todos</li>
+ *     <li>{@code blockCommentPercent} is the share of lines holding a block comment without any todo</li>
+ * </ul>
+ * Every other line is regular code, with string literals containing comment openings now and then.
+ */
+public final class SyntheticCorpus {
+
+    private static final String[] TODOS = {
+            "    // TODO: refactor by @owner due to 10.10.2030\n",
+            "    // TODO: nobody knows when this gets fixed\n",
+            "    // TODO: @reviewer should take a look, deadline 01.02.2031\n",
+            "    /* TODO: replace with the new API due to 31.12.2030 */\n",
+            "    /*\n     * TODO: split this class, assigned to @architect\n     */\n",
+    };
+
+    private SyntheticCorpus() {
+    }
+
+    /**
+     * @param lines the approximate number of lines
+     * @param todoPercent the share of lines holding a todo, in percent
+     * @param blockCommentPercent the share of lines holding a block comment without todo, in percent
+     * @param seed the seed of the generator
+     * @return the content of a Java source file of the given shape
+     */
+    public static String source(int lines, int todoPercent, int blockCommentPercent, long seed) {
+        Random random = new Random(seed);
+        StringBuilder builder = new StringBuilder("package bench;\n\npublic class Source").append(seed).append(" {\n");
+        for (int line = 0; line < lines; line++) {
+            int roll = random.nextInt(100);
+            if (roll < todoPercent) {
+                builder.append(TODOS[random.nextInt(TODOS.length)]);
+            } else if (roll < todoPercent + blockCommentPercent) {
+                builder.append("    /* generated member ").append(line).append(" */ int f").append(line).append(";\n");
+            } else if (roll % 16 == 0) {
+                builder.append("    String s").append(line).append(" = \"not a /* comment\";\n");
+            } else {
+                builder.append("    int field").append(line).append(" = compute(\"value\", ").append(line).append(");\n");
+            }
+        }
+        return builder.append("}\n").toString();
+    }
+
+    /**
+     * Writes a tree of sources, next to a {@code build} and a {@code .git} directory of the same size that a scan is
+     * expected to skip.
+     *
+     * @param root the directory to write the tree to
+     * @param directories the number of source directories
+     * @param filesPerDirectory the number of files per directory
+     * @param lines the approximate number of lines per file
+     * @param todoPercent the share of lines holding a todo, in percent
+     * @param blockCommentPercent the share of lines holding a block comment without todo, in percent
+     * @throws IOException if the tree cannot be written
+     */
+    public static void tree(
+            Path root,
+            int directories,
+            int filesPerDirectory,
+            int lines,
+            int todoPercent,
+            int blockCommentPercent
+    ) throws IOException {
+        for (String top : new String[]{"src", "build", ".git"}) {
+            for (int dir = 0; dir < directories; dir++) {
+                Path pkg = Files.createDirectories(root.resolve(top).resolve("module" + dir));
+                for (int file = 0; file < filesPerDirectory; file++) {
+                    long seed = (long) dir * filesPerDirectory + file;
+                    Files.writeString(
+                            pkg.resolve("Source" + seed + ".java"),
+                            source(lines, todoPercent, blockCommentPercent, seed)
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the given directory with everything below it.
+     *
+     * @param root the directory to delete
+     * @throws IOException if the directory cannot be walked
+     */
+    public static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
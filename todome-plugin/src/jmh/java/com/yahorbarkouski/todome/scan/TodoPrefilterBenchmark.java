@@ -0,0 +1,63 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding out that a file contains no todo: the word-at-a-time {@link TodoPrefilter} on the raw bytes,
+ * compared with decoding the file and searching the string, and with lexing the raw bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoPrefilterBenchmark {
+
+    private static final CommentSyntaxLexer LEXER = new CommentSyntaxLexer(CommentSyntax.jvm());
+
+    @Param({"16384", "1048576"})
+    public int size;
+
+    private ByteBuffer bytes;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        for (int line = 0; builder.length() < size; line++) {
+            builder.append("    /* Total of Tokens */ int field").append(line).append(" = compute(\"TOD\", ").append(line).append(");\n");
+        }
+        bytes = ByteBuffer.wrap(builder.substring(0, size).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public boolean prefilter() {
+        return TodoPrefilter.containsTodo(bytes);
+    }
+
+    @Benchmark
+    public boolean decodeAndSearch() {
+        return StandardCharsets.UTF_8.decode(bytes.duplicate()).toString().contains("TODO");
+    }
+
+    @Benchmark
+    public int lexer() {
+        int[] count = new int[1];
+        LEXER.scan(new SourceText(bytes, StandardCharsets.UTF_8), (textStart, textEnd, line, column) -> count[0]++);
+        return count[0];
+    }
+}
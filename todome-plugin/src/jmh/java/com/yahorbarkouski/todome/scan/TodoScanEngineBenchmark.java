@@ -0,0 +1,102 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures how the throughput of a full tree scan scales with the number of worker threads.
+ * The tree is a synthetic 64 directories x 64 files corpus, each file holding a handful of todos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoScanEngineBenchmark {
+
+    private static final CommentSyntaxLexer LEXER = new CommentSyntaxLexer(CommentSyntax.jvm());
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private Path root;
+    private List<File> files;
+    private TodoScanEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("todome-scan-bench");
+        for (int dir = 0; dir < 64; dir++) {
+            Path pkg = Files.createDirectories(root.resolve("module" + dir).resolve("src"));
+            for (int file = 0; file < 64; file++) {
+                Files.writeString(pkg.resolve("Source" + file + ".java"), source(file));
+            }
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(Files::isRegularFile).map(Path::toFile).toList();
+        }
+        engine = new TodoScanEngine(parallelism, f -> f.getName().endsWith(".java"), TodoScanEngineBenchmark::scanFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public List<TodoModel> scanTree() {
+        return engine.scan(files);
+    }
+
+    private static List<TodoModel> scanFile(File file) {
+        String content;
+        try {
+            content = Files.readString(file.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<TodoModel> todos = new ArrayList<>();
+        LEXER.scan(content, (textStart, textEnd, line, column) -> todos.add(new TodoModel("unassigned", null, file.getPath(), line, column)));
+        return todos;
+    }
+
+    private static String source(int seed) {
+        StringBuilder builder = new StringBuilder("package bench;\n\npublic class Source").append(seed).append(" {\n");
+        for (int method = 0; method < 40; method++) {
+            if (method % 8 == 0) {
+                builder.append("    // TODO: revisit by @owner").append(method).append(" due to 10.10.2030\n");
+            }
+            builder.append("    /* regular block comment */\n")
+                    .append("    public int method").append(method).append("(int value) {\n")
+                    .append("        return value * ").append(method).append(";\n")
+                    .append("    }\n");
+        }
+        return builder.append("}\n").toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares holding the todos of a large synthetic repository as a list of {@link TodoModel} objects, as the index and
+ * the listing used to, with holding them in a {@link TodoTable}. The benchmarks measure the time to store the todos,
+ * the heap both retain is printed once per trial, measured as the used heap after full collections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoTableBenchmark {
+
+    @Param({"500000"})
+    public int todos;
+
+    @Param({"20000"})
+    public int files;
+
+    @Param({"200"})
+    public int assignees;
+
+    private String[] filePaths;
+    private String[] assigneeNames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filePaths = new String[files];
+        for (int file = 0; file < files; file++) {
+            filePaths[file] = "/repository/module" + file % 64 + "/src/main/java/com/example/Source" + file + ".java";
+        }
+        assigneeNames = new String[assignees];
+        for (int assignee = 0; assignee < assignees; assignee++) {
+            assigneeNames[assignee] = "owner" + assignee;
+        }
+
+        long baseline = usedHeap();
+        List<TodoModel> models = models();
+        long modelsBytes = usedHeap() - baseline;
+        TodoTable table = table();
+        long tableBytes = usedHeap() - baseline - modelsBytes;
+        System.out.printf(
+                "%nRetained by %d todos: %d KB as TodoModel objects, %d KB in a TodoTable (%d and %d rows)%n",
+                todos, modelsBytes / 1024, tableBytes / 1024, models.size(), table.size()
+        );
+    }
+
+    @Benchmark
+    public List<TodoModel> models() {
+        Random random = new Random(42);
+        List<TodoModel> models = new ArrayList<>();
+        forEachTodo(random, (assignee, dueDate, path, line) -> models.add(new TodoModel(assignee, dueDate, path, line, 5)));
+        return models;
+    }
+
+    @Benchmark
+    public TodoTable table() {
+        Random random = new Random(42);
+        TodoTable table = new TodoTable();
+        forEachTodo(random, (assignee, dueDate, path, line) -> table.add(assignee, dueDate, path, line, 5));
+        return table;
+    }
+
+    // the todos of a file are adjacent and share its path, as they do when scanned
+    private void forEachTodo(Random random, TodoSink sink) {
+        int perFile = Math.max(1, todos / files);
+        for (int todo = 0; todo < todos; todo++) {
+            LocalDate dueDate = random.nextInt(4) == 0 ? null : LocalDate.ofEpochDay(19_000 + random.nextInt(2_000));
+            sink.accept(assigneeNames[random.nextInt(assignees)], dueDate, filePaths[todo / perFile % files], 1 + todo % perFile * 10);
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private interface TodoSink {
+        void accept(String assignee, LocalDate dueDate, String path, int line);
+    }
+}
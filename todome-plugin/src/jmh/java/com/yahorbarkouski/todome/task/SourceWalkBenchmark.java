@@ -0,0 +1,66 @@
+package com.yahorbarkouski.todome.task;
+
+import com.yahorbarkouski.todome.extension.ToDoMeExtension;
+import com.yahorbarkouski.todome.scan.SyntheticCorpus;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the directory walk resolving the sources of the {@link ScanTodosTask}, over a synthetic 32 x 32 files
+ * tree, next to {@code build} and {@code .git} directories of the same size that have to be pruned, with and without
+ * {@code .gitignore} support.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.lang=ALL-UNNAMED"})
+public class SourceWalkBenchmark {
+
+    @Param({"false", "true"})
+    public boolean respectGitignore;
+
+    private Path root;
+    private ScanTodosTask task;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("todome-walk-bench");
+        SyntheticCorpus.tree(root, 32, 32, 20, 1, 0);
+        Files.writeString(root.resolve(".gitignore"), "*.class\nout/\n/generated\n");
+
+        Project project = ProjectBuilder.builder().withProjectDir(root.toFile()).build();
+        project.getPlugins().apply("com.yahorbarkouski.todome");
+        project.getExtensions().getByType(ToDoMeExtension.class).setRespectGitignore(respectGitignore);
+        task = (ScanTodosTask) project.getTasks().getByName("scanTodos");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticCorpus.delete(root);
+    }
+
+    @Benchmark
+    public int walk() {
+        return task.getSources().getAsFileTree().getFiles().size();
+    }
+}
@@ -0,0 +1,151 @@
+package com.yahorbarkouski.todome.task;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import com.yahorbarkouski.todome.scan.CommentSyntax;
+import com.yahorbarkouski.todome.scan.CommentSyntaxLexer;
+import com.yahorbarkouski.todome.scan.LineIndex;
+import com.yahorbarkouski.todome.scan.SyntheticCorpus;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-file extraction hot path of the {@link ScanTodosTask}, over synthetic files of varying size, todo
+ * density and block comment density.
+ * <ul>
+ *     <li>{@code extractTodosFromFile} is the whole path a changed file goes through: read, prefilter, lex, parse</li>
+ *     <li>{@code extractAssignee} and {@code extractDueDate} parse every todo comment of the file with the extraction
+ *     plan of the scan</li>
+ *     <li>{@code lineAndColumn} resolves the position of every todo of the file through a {@link LineIndex}, the
+ *     baseline of the positions the lexer tracks while lexing</li>
+ * </ul>
+ * Run with {@code -prof gc} to see the allocation rate of each stage, parsing assignees and due dates is expected to
+ * allocate next to nothing besides the dates themselves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.lang=ALL-UNNAMED"})
+public class TodoExtractionBenchmark {
+
+    @Param({"200", "5000"})
+    public int lines;
+
+    @Param({"0", "1", "10"})
+    public int todoPercent;
+
+    @Param({"0", "25"})
+    public int blockCommentPercent;
+
+    private Path root;
+    private ScanTodosTask task;
+    private ScanTodosTask.ScanParsers parsers;
+    private File file;
+    private String content;
+    private int[] starts;
+    private int[] ends;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("todome-extraction-bench");
+        Project project = ProjectBuilder.builder().withProjectDir(root.toFile()).build();
+        project.getPlugins().apply("com.yahorbarkouski.todome");
+        task = (ScanTodosTask) project.getTasks().getByName("scanTodos");
+        task.getDueDatePrefixes().set(List.of("due to", "deadline"));
+        parsers = task.parsers();
+
+        content = SyntheticCorpus.source(lines, todoPercent, blockCommentPercent, 42);
+        file = root.resolve("Source.java").toFile();
+        Files.writeString(file.toPath(), content);
+
+        List<int[]> comments = new ArrayList<>();
+        new CommentSyntaxLexer(CommentSyntax.jvm()).scan(content, (textStart, textEnd, line, column) -> comments.add(new int[]{textStart, textEnd}));
+        starts = comments.stream().mapToInt(comment -> comment[0]).toArray();
+        ends = comments.stream().mapToInt(comment -> comment[1]).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticCorpus.delete(root);
+    }
+
+    @Benchmark
+    public List<TodoModel> extractTodosFromFile() {
+        return task.extractTodosFromFile(parsers, file, null);
+    }
+
+    @Benchmark
+    public int extractAssignee() {
+        int sum = 0;
+        for (int i = 0; i < starts.length; i++) {
+            sum += parsers.extractionPlan.assignee(content, starts[i], ends[i]).length();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long extractDueDate() {
+        long sum = 0;
+        for (int i = 0; i < starts.length; i++) {
+            LocalDate dueDate = parsers.extractionPlan.dueDate(content, starts[i], ends[i]);
+            sum += dueDate == null ? 0 : dueDate.toEpochDay();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long lineAndColumn() {
+        long sum = 0;
+        for (int offset : starts) {
+            sum += calculateLineNumber(content, offset) + calculateColumnNumber(content, offset);
+        }
+        return sum;
+    }
+
+    /**
+     * Calculates the line number of the specified character position in a given string.
+     * The line offsets of the string are indexed once and reused by subsequent calls for the same string,
+     * so resolving many positions of one file costs a binary search each.
+     *
+     * @param content the string to calculate the line number from
+     * @param pos the character position in the string to calculate the line number for
+     * @return the line number at the specified character position
+     */
+    private static int calculateLineNumber(String content, int pos) {
+        return LineIndex.cached(content).lineNumber(pos);
+    }
+
+    /**
+     * Calculates the column number based on the content string and the current position.
+     *
+     * @param content the string content to calculate the column number from
+     * @param pos the current position to calculate the column number from
+     * @return the column number
+     */
+    private static int calculateColumnNumber(String content, int pos) {
+        return LineIndex.cached(content).columnNumber(pos);
+    }
+}
@@ -1,18 +1,247 @@
 package com.yahorbarkouski.todome;
 
 import com.yahorbarkouski.todome.extension.ToDoMeExtension;
+import com.yahorbarkouski.todome.report.ReportFormat;
+import com.yahorbarkouski.todome.scan.GitChanges;
+import com.yahorbarkouski.todome.scan.GitChangesSource;
+import com.yahorbarkouski.todome.scan.GitIgnoreSpec;
+import com.yahorbarkouski.todome.scan.LiveTodoIndexService;
+import com.yahorbarkouski.todome.task.AbstractTodoTask;
 import com.yahorbarkouski.todome.task.ListTodosTask;
+import com.yahorbarkouski.todome.task.ScanTodosTask;
+import com.yahorbarkouski.todome.task.TodaySource;
 import com.yahorbarkouski.todome.task.VerifyTodosTask;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.attributes.Usage;
+import org.gradle.api.file.ConfigurableFileTree;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @SuppressWarnings("unused")
 public class ToDoMePlugin implements Plugin<Project> {
 
+    public static final String PLUGIN_ID = "com.yahorbarkouski.todome";
+    // the scan report of a project, consumed by the aggregate tasks of the root project
+    public static final String SCAN_ELEMENTS_CONFIGURATION = "todomeScanElements";
+    // the scan reports of the subprojects, resolved by the aggregate tasks of the root project
+    public static final String SCANS_CONFIGURATION = "todomeScans";
+    private static final String SCAN_USAGE = "todome-scan";
+    // the build service holding the live todo indexes of the daemon
+    public static final String LIVE_INDEX_SERVICE = "todomeLiveIndex";
+    // the number of violations reported with -PfailFast, when the extension does not set one
+    public static final int DEFAULT_FAIL_FAST_VIOLATIONS = 10;
+
     @Override
     public void apply(Project project) {
-        project.getExtensions().create("todome", ToDoMeExtension.class);
-        project.getTasks().create("verifyTodos", VerifyTodosTask.class);
-        project.getTasks().create("listTodos", ListTodosTask.class);
+        ToDoMeExtension extension = project.getExtensions().create("todome", ToDoMeExtension.class);
+        TaskProvider<ScanTodosTask> scanTodos = project.getTasks().register("scanTodos", ScanTodosTask.class,
+                task -> configureScanTask(project, extension, task));
+        Provider<RegularFile> scanReport = scanTodos.flatMap(ScanTodosTask::getScanReport);
+        project.getTasks().withType(AbstractTodoTask.class).configureEach(task -> configureTodoTask(project, extension, task));
+        project.getTasks().withType(ListTodosTask.class).configureEach(task -> configureListTask(project, task));
+        project.getTasks().register("verifyTodos", VerifyTodosTask.class, task -> task.getScanReports().from(scanReport));
+        project.getTasks().register("listTodos", ListTodosTask.class, task -> task.getScanReports().from(scanReport));
+        configureFailFast(project, extension, scanTodos);
+
+        Configuration scanElements = project.getConfigurations().create(SCAN_ELEMENTS_CONFIGURATION, configuration -> {
+            configuration.setCanBeConsumed(true);
+            configuration.setCanBeResolved(false);
+            configuration.attributes(attributes -> attributes.attribute(Usage.USAGE_ATTRIBUTE, scanUsage(project)));
+        });
+        scanElements.getOutgoing().artifact(scanReport, artifact -> artifact.builtBy(scanTodos));
+
+        if (project == project.getRootProject()) {
+            registerAggregateTasks(project, scanReport);
+        }
+    }
+
+    /**
+     * Registers the tasks reporting on the todos of the whole build. They merge the scan report of the root project
+     * with the ones of every subproject applying the plugin, which only scan their own sources, so no file is
+     * scanned twice.
+     */
+    private static void registerAggregateTasks(Project project, Provider<RegularFile> scanReport) {
+        Configuration scans = project.getConfigurations().create(SCANS_CONFIGURATION, configuration -> {
+            configuration.setCanBeConsumed(false);
+            configuration.setCanBeResolved(true);
+            configuration.attributes(attributes -> attributes.attribute(Usage.USAGE_ATTRIBUTE, scanUsage(project)));
+        });
+        project.getSubprojects().forEach(subproject -> subproject.getPluginManager().withPlugin(PLUGIN_ID, plugin ->
+                project.getDependencies().add(SCANS_CONFIGURATION, project.getDependencies().project(Map.of("path", subproject.getPath())))
+        ));
+
+        project.getTasks().register("verifyAllTodos", VerifyTodosTask.class, task -> task.getScanReports().from(scanReport, scans));
+        project.getTasks().register("listAllTodos", ListTodosTask.class, task -> task.getScanReports().from(scanReport, scans));
+    }
+
+    private static Usage scanUsage(Project project) {
+        return project.getObjects().named(Usage.class, SCAN_USAGE);
+    }
+
+    private static void configureScanTask(Project project, ToDoMeExtension extension, ScanTodosTask task) {
+        Provider<GitChanges> changes = gitChanges(project, extension);
+        task.getSources().from(project.provider(() -> sourceTrees(project, extension, changes.getOrNull())));
+        task.getChangedFilesOnly().convention(changes.map(gitChanges -> true).orElse(false));
+        task.getDueDatePrefixes().convention(project.provider(extension::getDueDatePrefixes));
+        task.getDateFormat().convention(project.provider(extension::getDateFormat));
+        task.getMentionSymbol().convention(project.provider(extension::getMentionSymbol));
+        task.getCharset().convention(project.provider(extension::getCharset));
+        task.getCommentSyntaxes().convention(project.provider(extension::getCommentSyntaxes));
+        task.getScanArchives().convention(project.provider(() -> !extension.getArchiveIncludes().isEmpty()));
+        task.getParallelism().convention(project.provider(extension::getParallelism));
+        task.getReaderThreads().convention(project.provider(extension::getReaderThreads));
+        task.getRootDirectory().convention(project.getRootProject().getLayout().getProjectDirectory());
+        task.getScanReport().convention(project.getLayout().getBuildDirectory().file("todome/todos.bin"));
+        task.getIndexFile().convention(project.getLayout().getBuildDirectory().file("todome/" + task.getName() + "-index.bin"));
+        task.getMetrics().convention(metricsEnabled(project, extension));
+        task.getMetricsFile().convention(project.getLayout().getBuildDirectory().file("todome/" + task.getName() + "-metrics.json"));
+        task.getChangedLines().convention(project.provider(() -> changedLinesOnly(project, extension) ? changes.getOrNull() : null));
+
+        Provider<LiveTodoIndexService> liveIndexService = project.getGradle().getSharedServices()
+                .registerIfAbsent(LIVE_INDEX_SERVICE, LiveTodoIndexService.class, spec -> { });
+        task.getLiveIndexService().set(liveIndexService);
+        task.usesService(liveIndexService);
+        task.getLiveIndex().convention(project.getProviders().gradleProperty("todomeLiveIndex")
+                .map(liveIndex -> !liveIndex.equals("false"))
+                .orElse(project.provider(extension::isLiveIndex)));
+    }
+
+    /**
+     * Lists the changes since the base revision set by -PtodomeSince or the extension, by running git in the root
+     * project directory. The provider has no value when no base revision is set.
+     */
+    private static Provider<GitChanges> gitChanges(Project project, ToDoMeExtension extension) {
+        Provider<String> since = project.getProviders().gradleProperty("todomeSince")
+                .orElse(project.provider(extension::getSince));
+        return project.getProviders().of(GitChangesSource.class, spec -> {
+            spec.getParameters().getWorkingDirectory().set(project.getRootProject().getLayout().getProjectDirectory());
+            spec.getParameters().getSince().set(since);
+        });
+    }
+
+    private static boolean changedLinesOnly(Project project, ToDoMeExtension extension) {
+        Provider<String> changedLinesOnly = project.getProviders().gradleProperty("todomeChangedLinesOnly");
+        return changedLinesOnly.isPresent() ? !changedLinesOnly.get().equals("false") : extension.isChangedLinesOnly();
+    }
+
+    /**
+     * Caps the number of violations verified, from the extension or -PfailFast. The scan itself only stops as soon as
+     * it found that many when every todo task of the task graph verifies todos, since any other one, such as a task
+     * listing todos, needs every todo of the scan report.
+     */
+    private static void configureFailFast(Project project, ToDoMeExtension extension, TaskProvider<ScanTodosTask> scanTodos) {
+        Provider<String> failFast = project.getProviders().gradleProperty("failFast");
+        Provider<Integer> maxViolations = project.provider(() -> {
+            if (extension.getMaxViolations() != null) return extension.getMaxViolations();
+            return failFast.isPresent() && !failFast.get().equals("false") ? DEFAULT_FAIL_FAST_VIOLATIONS : null;
+        });
+        project.getTasks().withType(VerifyTodosTask.class).configureEach(task -> task.getMaxViolations().convention(maxViolations));
+        Property<Boolean> onlyVerifying = project.getObjects().property(Boolean.class).convention(false);
+        project.getGradle().getTaskGraph().whenReady(graph -> onlyVerifying.set(graph.getAllTasks().stream()
+                .filter(AbstractTodoTask.class::isInstance)
+                .allMatch(VerifyTodosTask.class::isInstance)));
+        scanTodos.configure(task -> task.getMaxViolations().convention(project.provider(() ->
+                onlyVerifying.get() ? maxViolations.getOrNull() : null
+        )));
+    }
+
+    private static void configureTodoTask(Project project, ToDoMeExtension extension, AbstractTodoTask task) {
+        task.getRootDirectory().convention(project.getRootProject().getLayout().getProjectDirectory());
+        task.getReportFile().convention(project.getLayout().getBuildDirectory().file("todome/" + task.getName() + ".txt"));
+        task.getReportFormats().convention(project.provider(() -> extension.getReportFormats().stream().map(ReportFormat::of).toList()));
+        task.getReportsDirectory().convention(project.getLayout().getBuildDirectory().dir("todome"));
+        task.getConsoleLimit().convention(project.provider(extension::getConsoleLimit));
+        task.getMetrics().convention(metricsEnabled(project, extension));
+        task.getMetricsFile().convention(project.getLayout().getBuildDirectory().file("todome/" + task.getName() + "-metrics.json"));
+    }
+
+    /**
+     * Whether the tasks measure the time spent in their phases, from -PtodomeMetrics or the extension.
+     */
+    private static Provider<Boolean> metricsEnabled(Project project, ToDoMeExtension extension) {
+        return project.getProviders().gradleProperty("todomeMetrics")
+                .map(metrics -> !metrics.equals("false"))
+                .orElse(project.provider(extension::isMetrics));
+    }
+
+    /**
+     * Reads the filter and order of the listed todos from -Passignee, -Psort and -Poverdue. The date overdue todos are
+     * checked against is obtained on every build, and only when listing overdue todos.
+     */
+    private static void configureListTask(Project project, ListTodosTask task) {
+        ProviderFactory providers = project.getProviders();
+        task.getAssigneeFilter().convention(providers.gradleProperty("assignee"));
+        task.getDueDateAscending().convention(providers.gradleProperty("sort").map("asc"::equals).orElse(false));
+        task.getOverdue().convention(providers.gradleProperty("overdue").map("true"::equals).orElse(false));
+        task.getToday().convention(providers.of(TodaySource.class, spec -> spec.getParameters().getEnabled().set(task.getOverdue())));
+    }
+
+    /**
+     * Resolves the trees scanned for todos: the configured source roots, or the source directories of the project
+     * source sets, or, when there are none, the project directory. Unless includes are configured, every file with
+     * the extension of a comment syntax is included, so a single walk collects the files of every language. Archives
+     * matching the archive includes are kept next to the sources. Excluded directories, the ones ignored by git if
+     * enabled, and the ones of subprojects scanning their own sources are pruned while walking the trees rather than
+     * filtered afterwards. When changes since a base revision are given, only the changed files are kept.
+     */
+    private static List<ConfigurableFileTree> sourceTrees(Project project, ToDoMeExtension extension, @Nullable GitChanges changes) {
+        Set<File> roots = new LinkedHashSet<>();
+        if (!extension.getSourceRoots().isEmpty()) {
+            extension.getSourceRoots().forEach(root -> roots.add(project.file(root)));
+        } else {
+            SourceSetContainer sourceSets = project.getExtensions().findByType(SourceSetContainer.class);
+            if (sourceSets != null) {
+                sourceSets.forEach(sourceSet -> roots.addAll(sourceSet.getAllSource().getSrcDirs()));
+            }
+            if (roots.isEmpty()) {
+                roots.add(project.getProjectDir());
+            }
+        }
+        List<File> ownScanningSubprojects = project.getSubprojects().stream()
+                .filter(subproject -> subproject.getPluginManager().hasPlugin(PLUGIN_ID))
+                .map(Project::getProjectDir)
+                .toList();
+
+        List<String> includes = !extension.getIncludes().isEmpty() ? extension.getIncludes() : extension.getCommentSyntaxes().stream()
+                .flatMap(syntax -> syntax.getExtensions().stream())
+                .map(fileExtension -> "**/*" + fileExtension)
+                .distinct()
+                .toList();
+        File rootDir = project.getRootDir();
+        GitIgnoreSpec gitIgnore = extension.isRespectGitignore() ? new GitIgnoreSpec(project.getRootDir()) : null;
+        return roots.stream()
+                .map(root -> project.fileTree(root, tree -> {
+                    tree.include(includes);
+                    tree.include(extension.getArchiveIncludes());
+                    tree.exclude(extension.getExcludes());
+                    if (gitIgnore != null) {
+                        tree.exclude(gitIgnore);
+                    }
+                    if (changes != null) {
+                        tree.exclude(element -> !element.isDirectory() && !changes.contains(relativePath(rootDir, element.getFile())));
+                    }
+                    ownScanningSubprojects.stream()
+                            .map(subprojectDir -> root.toPath().relativize(subprojectDir.toPath()))
+                            .filter(relativeDir -> !relativeDir.toString().isEmpty() && !relativeDir.startsWith(".."))
+                            .forEach(relativeDir -> tree.exclude(relativeDir.toString().replace(File.separatorChar, '/') + "/**"));
+                }))
+                .toList();
+    }
+
+    private static String relativePath(File rootDir, File file) {
+        return rootDir.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
     }
 }
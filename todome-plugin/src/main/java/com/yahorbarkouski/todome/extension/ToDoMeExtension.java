@@ -1,5 +1,9 @@
 package com.yahorbarkouski.todome.extension;
 
+import com.yahorbarkouski.todome.scan.CommentSyntax;
+import org.gradle.api.Action;
+
+import java.util.ArrayList;
 import java.util.List;
 
 @SuppressWarnings("unused")
@@ -7,6 +11,23 @@ public class ToDoMeExtension {
     private List<String> dueDatePrefixes = List.of("due to");
     private String dateFormat = "dd.MM.yyyy";
     private String mentionSymbol = "@";
+    private String charset = "UTF-8";
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int readerThreads = 4;
+    private List<String> sourceRoots = List.of();
+    // every file of the comment syntaxes when empty
+    private List<String> includes = List.of();
+    private List<String> excludes = List.of("**/build/**", "**/.gradle/**", "**/.git/**", "**/.idea/**", "**/node_modules/**");
+    private List<String> archiveIncludes = List.of();
+    private boolean respectGitignore = false;
+    private Integer maxViolations = null;
+    private String since = null;
+    private boolean changedLinesOnly = false;
+    private List<String> reportFormats = List.of();
+    private int consoleLimit = 20;
+    private boolean liveIndex = false;
+    private boolean metrics = false;
+    private List<CommentSyntax> commentSyntaxes = new ArrayList<>(List.of(CommentSyntax.jvm()));
 
     public List<String> getDueDatePrefixes() { return this.dueDatePrefixes; }
     public void setDueDatePrefixes(List<String> dueDatePrefixes) { this.dueDatePrefixes = dueDatePrefixes; }
@@ -16,4 +37,77 @@ public class ToDoMeExtension {
 
     public String getMentionSymbol() { return this.mentionSymbol; }
     public void setMentionSymbol(String mentionSymbol) { this.mentionSymbol = mentionSymbol; }
+
+    public String getCharset() { return this.charset; }
+    public void setCharset(String charset) { this.charset = charset; }
+
+    public int getParallelism() { return this.parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+    public int getReaderThreads() { return this.readerThreads; }
+    public void setReaderThreads(int readerThreads) { this.readerThreads = readerThreads; }
+
+    public List<String> getSourceRoots() { return this.sourceRoots; }
+    public void setSourceRoots(List<String> sourceRoots) { this.sourceRoots = sourceRoots; }
+
+    public List<String> getIncludes() { return this.includes; }
+    public void setIncludes(List<String> includes) { this.includes = includes; }
+
+    public List<String> getExcludes() { return this.excludes; }
+    public void setExcludes(List<String> excludes) { this.excludes = excludes; }
+
+    public List<String> getArchiveIncludes() { return this.archiveIncludes; }
+    public void setArchiveIncludes(List<String> archiveIncludes) { this.archiveIncludes = archiveIncludes; }
+
+    public boolean isRespectGitignore() { return this.respectGitignore; }
+    public void setRespectGitignore(boolean respectGitignore) { this.respectGitignore = respectGitignore; }
+
+    public Integer getMaxViolations() { return this.maxViolations; }
+    public void setMaxViolations(Integer maxViolations) { this.maxViolations = maxViolations; }
+
+    public String getSince() { return this.since; }
+    public void setSince(String since) { this.since = since; }
+
+    public boolean isChangedLinesOnly() { return this.changedLinesOnly; }
+    public void setChangedLinesOnly(boolean changedLinesOnly) { this.changedLinesOnly = changedLinesOnly; }
+
+    public List<String> getReportFormats() { return this.reportFormats; }
+    public void setReportFormats(List<String> reportFormats) { this.reportFormats = reportFormats; }
+
+    public int getConsoleLimit() { return this.consoleLimit; }
+    public void setConsoleLimit(int consoleLimit) { this.consoleLimit = consoleLimit; }
+
+    public boolean isLiveIndex() { return this.liveIndex; }
+    public void setLiveIndex(boolean liveIndex) { this.liveIndex = liveIndex; }
+
+    public boolean isMetrics() { return this.metrics; }
+    public void setMetrics(boolean metrics) { this.metrics = metrics; }
+
+    public List<CommentSyntax> getCommentSyntaxes() { return this.commentSyntaxes; }
+    public void setCommentSyntaxes(List<CommentSyntax> commentSyntaxes) { this.commentSyntaxes = new ArrayList<>(commentSyntaxes); }
+
+    /**
+     * Scans the files of the built-in comment syntax of the given name as well, such as {@code sql}.
+     *
+     * @param name the name of the built-in syntax
+     */
+    public void commentSyntax(String name) {
+        commentSyntax(name, syntax -> { });
+    }
+
+    /**
+     * Configures the comment syntax of the given name, added to the scanned ones if it is not yet. A new syntax
+     * starts from the built-in one of that name, if any, or with no rules at all.
+     *
+     * @param name the name of the syntax
+     * @param configure the configuration of the syntax
+     */
+    public void commentSyntax(String name, Action<? super CommentSyntax> configure) {
+        CommentSyntax syntax = commentSyntaxes.stream().filter(existing -> existing.getName().equals(name)).findFirst().orElse(null);
+        if (syntax == null) {
+            syntax = CommentSyntax.isBuiltIn(name) ? CommentSyntax.builtIn(name) : new CommentSyntax(name);
+            commentSyntaxes.add(syntax);
+        }
+        configure.execute(syntax);
+    }
 }
@@ -0,0 +1,45 @@
+package com.yahorbarkouski.todome.report;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes todos as RFC 4180 comma separated values, one todo per line after a header line.
+ */
+final class CsvReportWriter implements FormattedReportWriter {
+
+    private final Writer out;
+
+    CsvReportWriter(Writer out) throws IOException {
+        this.out = out;
+        out.write("path,line,column,assignee,dueDate\r\n");
+    }
+
+    @Override
+    public void write(String path, TodoModel todo) throws IOException {
+        field(path);
+        out.write("," + todo.getLineNumber() + "," + todo.getColumnNumber() + ",");
+        field(todo.getAssignee());
+        out.write(",");
+        if (todo.getDueDate() != null) {
+            out.write(todo.getDueDate().toString());
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // quotes fields holding separators, quotes or line breaks, doubling the quotes they hold
+    private void field(String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+        } else {
+            out.write('"' + value.replace("\"", "\"\"") + '"');
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.yahorbarkouski.todome.report;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+
+import java.io.IOException;
+
+/**
+ * Streaming writer of a report in one of the {@link ReportFormat}s, accepting todos one at a time. Closing it writes
+ * the end of the report and closes the underlying writer.
+ */
+public interface FormattedReportWriter {
+
+    /**
+     * @param path the path of the file holding the todo, relative to the root directory, with forward slashes
+     * @param todo the todo to append to the report
+     * @throws IOException if the todo cannot be written
+     */
+    void write(String path, TodoModel todo) throws IOException;
+
+    /**
+     * @throws IOException if the report cannot be completed
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,76 @@
+package com.yahorbarkouski.todome.report;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes todos as JSON objects, either as the elements of an array or as newline delimited JSON.
+ */
+public final class JsonReportWriter implements FormattedReportWriter {
+
+    private final Writer out;
+    private final boolean delimited;
+    private boolean first = true;
+
+    JsonReportWriter(Writer out, boolean delimited) throws IOException {
+        this.out = out;
+        this.delimited = delimited;
+        if (!delimited) out.write("[");
+    }
+
+    @Override
+    public void write(String path, TodoModel todo) throws IOException {
+        if (!delimited) out.write(first ? "\n  " : ",\n  ");
+        first = false;
+        out.write("{\"path\":");
+        quote(out, path);
+        out.write(",\"line\":" + todo.getLineNumber() + ",\"column\":" + todo.getColumnNumber() + ",\"assignee\":");
+        quote(out, todo.getAssignee());
+        out.write(",\"dueDate\":");
+        if (todo.getDueDate() == null) {
+            out.write("null");
+        } else {
+            quote(out, todo.getDueDate().toString());
+        }
+        out.write("}");
+        if (delimited) out.write("\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            if (!delimited) out.write(first ? "]\n" : "\n]\n");
+        }
+    }
+
+    /**
+     * Writes the given value as a JSON string.
+     *
+     * @param out the writer to write to
+     * @param value the value to quote and escape
+     * @throws IOException if the value cannot be written
+     */
+    public static void quote(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,78 @@
+package com.yahorbarkouski.todome.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * The machine-readable formats todos can be reported in, next to the plain text report of every task.
+ */
+public enum ReportFormat {
+    /**
+     * A JSON array of todo objects.
+     */
+    JSON("json"),
+    /**
+     * One JSON todo object per line.
+     */
+    NDJSON("ndjson"),
+    /**
+     * A SARIF 2.1.0 log, as consumed by code scanning UIs.
+     */
+    SARIF("sarif"),
+    /**
+     * Comma separated values, with a header line.
+     */
+    CSV("csv");
+
+    private final String extension;
+
+    ReportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Opens a streaming writer of this format.
+     *
+     * @param out the writer of the report file, expected to be buffered
+     * @param rule describes the todos the report holds
+     * @return the report writer
+     * @throws IOException if the report header cannot be written
+     */
+    public FormattedReportWriter open(Writer out, ReportRule rule) throws IOException {
+        return switch (this) {
+            case JSON -> new JsonReportWriter(out, false);
+            case NDJSON -> new JsonReportWriter(out, true);
+            case SARIF -> new SarifReportWriter(out, rule);
+            case CSV -> new CsvReportWriter(out);
+        };
+    }
+
+    /**
+     * Resolves a format by its name, ignoring case, such as {@code "sarif"}.
+     *
+     * @param name the name of the format
+     * @return the format
+     * @throws IllegalArgumentException if there is no such format
+     */
+    public static ReportFormat of(String name) {
+        for (ReportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name.strip())) return format;
+        }
+        throw new IllegalArgumentException(
+                "Unknown report format '" + name + "', expected one of " +
+                        Arrays.stream(values()).map(format -> format.extension).collect(Collectors.joining(", "))
+        );
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,46 @@
+package com.yahorbarkouski.todome.report;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+
+import java.util.function.Function;
+
+/**
+ * Describes what the todos of a report are reported for, such as a missing due date, which SARIF logs as a rule with
+ * a message and a severity level for each result.
+ */
+public final class ReportRule {
+
+    private final String id;
+    private final String description;
+    private final String level;
+    private final Function<TodoModel, String> message;
+
+    /**
+     * @param id the identifier of the rule
+     * @param description the short description of the rule
+     * @param level the SARIF level of the results, {@code error}, {@code warning} or {@code note}
+     * @param message builds the plain text message of a todo
+     */
+    public ReportRule(String id, String description, String level, Function<TodoModel, String> message) {
+        this.id = id;
+        this.description = description;
+        this.level = level;
+        this.message = message;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public String message(TodoModel todo) {
+        return message.apply(todo);
+    }
+}
@@ -0,0 +1,71 @@
+package com.yahorbarkouski.todome.report;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import static com.yahorbarkouski.todome.report.JsonReportWriter.quote;
+
+/**
+ * Writes todos as the results of a single run of a SARIF 2.1.0 log, all of them reported for the same rule.
+ * Locations are relative to the {@code %SRCROOT%} base, so that code scanning UIs resolve them against the checkout.
+ */
+final class SarifReportWriter implements FormattedReportWriter {
+
+    private static final String TOOL_NAME = "todome";
+    private static final String TOOL_URI = "https://github.com/yahorbarkouski/todome";
+
+    private final Writer out;
+    private final ReportRule rule;
+    private boolean first = true;
+
+    SarifReportWriter(Writer out, ReportRule rule) throws IOException {
+        this.out = out;
+        this.rule = rule;
+        out.write("{\n  \"$schema\": \"https://json.schemastore.org/sarif-2.1.0.json\",\n  \"version\": \"2.1.0\",\n");
+        out.write("  \"runs\": [{\n    \"tool\": {\"driver\": {\"name\": ");
+        quote(out, TOOL_NAME);
+        out.write(", \"informationUri\": ");
+        quote(out, TOOL_URI);
+        out.write(", \"rules\": [{\"id\": ");
+        quote(out, rule.getId());
+        out.write(", \"shortDescription\": {\"text\": ");
+        quote(out, rule.getDescription());
+        out.write("}}]}},\n    \"results\": [");
+    }
+
+    @Override
+    public void write(String path, TodoModel todo) throws IOException {
+        out.write(first ? "\n      " : ",\n      ");
+        first = false;
+        out.write("{\"ruleId\": ");
+        quote(out, rule.getId());
+        out.write(", \"level\": ");
+        quote(out, rule.getLevel());
+        out.write(", \"message\": {\"text\": ");
+        quote(out, rule.message(todo));
+        out.write("}, \"locations\": [{\"physicalLocation\": {\"artifactLocation\": {\"uri\": ");
+        quote(out, uri(path));
+        out.write(", \"uriBaseId\": \"%SRCROOT%\"}, \"region\": {\"startLine\": " + todo.getLineNumber());
+        out.write(", \"startColumn\": " + todo.getColumnNumber() + "}}}]}");
+    }
+
+    // artifact locations are URI references, so characters such as spaces are percent-encoded
+    private static String uri(String path) {
+        try {
+            return new URI(null, null, path, null).toASCIIString();
+        } catch (URISyntaxException e) {
+            return path;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            out.write(first ? "]\n  }]\n}\n" : "\n    ]\n  }]\n}\n");
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * The comment syntax of a language, telling the scan which files are written in it and how comments are told apart
+ * from code in them: the markers starting a line comment, the delimiters of block comments, whether block comments
+ * nest, and the string literals a comment marker means nothing in. Syntaxes are compiled into a
+ * {@link CommentSyntaxLexer}, and the syntaxes of a scan into a {@link CommentSyntaxTable} dispatching every file to
+ * the lexer of its extension.
+ * <p>
+ * The built-in syntaxes are returned by {@link #builtIn(String)}, others are described by setting the rules of a new
+ * syntax. A syntax is a plain serializable description, so it can be used as a task input.
+ */
+public final class CommentSyntax implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Map<String, Supplier<CommentSyntax>> BUILT_IN = Map.of(
+            "jvm", CommentSyntax::jvm,
+            "scala", CommentSyntax::scala,
+            "typescript", CommentSyntax::typescript,
+            "sql", CommentSyntax::sql,
+            "yaml", CommentSyntax::yaml,
+            "shell", CommentSyntax::shell
+    );
+
+    private final String name;
+    private List<String> extensions = new ArrayList<>();
+    private final List<String> lineComments = new ArrayList<>();
+    private final List<BlockComment> blockComments = new ArrayList<>();
+    private boolean nestedBlockComments = false;
+    private final List<String> quotes = new ArrayList<>();
+    private final List<String> rawQuotes = new ArrayList<>();
+    private String escape = "\\";
+    private boolean lineCommentsAfterWhitespace = false;
+
+    /**
+     * @param name the name of the syntax, such as the language it describes
+     */
+    public CommentSyntax(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Java, Kotlin and Groovy, with text blocks and raw strings.
+     *
+     * @return a new instance of the syntax
+     */
+    public static CommentSyntax jvm() {
+        CommentSyntax syntax = cStyle("jvm", ".java", ".kt", ".kts", ".groovy");
+        syntax.rawQuote("\"\"\"");
+        syntax.rawQuote("'''");
+        return syntax;
+    }
+
+    /**
+     * Scala, whose block comments nest.
+     *
+     * @return a new instance of the syntax
+     */
+    public static CommentSyntax scala() {
+        CommentSyntax syntax = cStyle("scala", ".scala", ".sc");
+        syntax.rawQuote("\"\"\"");
+        syntax.setNestedBlockComments(true);
+        return syntax;
+    }
+
+    /**
+     * TypeScript and JavaScript, with template literals.
+     *
+     * @return a new instance of the syntax
+     */
+    public static CommentSyntax typescript() {
+        CommentSyntax syntax = cStyle("typescript", ".ts", ".tsx", ".mts", ".cts", ".js", ".jsx", ".mjs", ".cjs");
+        syntax.rawQuote("`");
+        return syntax;
+    }
+
+    /**
+     * SQL, such as migration scripts. Quotes are escaped by doubling them, which lexes as two adjacent literals.
+     *
+     * @return a new instance of the syntax
+     */
+    public static CommentSyntax sql() {
+        CommentSyntax syntax = new CommentSyntax("sql");
+        syntax.setExtensions(List.of(".sql"));
+        syntax.lineComment("--");
+        syntax.blockComment("/*", "*/");
+        syntax.rawQuote("'");
+        syntax.rawQuote("\"");
+        syntax.setEscape("");
+        return syntax;
+    }
+
+    /**
+     * YAML, where a {@code #} only starts a comment at the start of a line or after whitespace.
+     *
+     * @return a new instance of the syntax
+     */
+    public static CommentSyntax yaml() {
+        CommentSyntax syntax = new CommentSyntax("yaml");
+        syntax.setExtensions(List.of(".yaml", ".yml"));
+        syntax.lineComment("#");
+        syntax.quote("\"");
+        syntax.rawQuote("'");
+        syntax.setLineCommentsAfterWhitespace(true);
+        return syntax;
+    }
+
+    /**
+     * Shell scripts, where a {@code #} only starts a comment at the start of a word, unlike in {@code $#}.
+     *
+     * @return a new instance of the syntax
+     */
+    public static CommentSyntax shell() {
+        CommentSyntax syntax = new CommentSyntax("shell");
+        syntax.setExtensions(List.of(".sh", ".bash", ".zsh"));
+        syntax.lineComment("#");
+        syntax.quote("\"");
+        syntax.rawQuote("'");
+        syntax.setLineCommentsAfterWhitespace(true);
+        return syntax;
+    }
+
+    /**
+     * @param name the name of a built-in syntax: jvm, scala, typescript, sql, yaml or shell
+     * @return a new instance of the syntax
+     * @throws IllegalArgumentException if there is no built-in syntax of that name
+     */
+    public static CommentSyntax builtIn(String name) {
+        Supplier<CommentSyntax> syntax = BUILT_IN.get(name.toLowerCase(Locale.ROOT));
+        if (syntax == null) {
+            throw new IllegalArgumentException("Unknown comment syntax " + name + ", built-in ones are " + BUILT_IN.keySet().stream().sorted().toList());
+        }
+        return syntax.get();
+    }
+
+    /**
+     * @param name the name of a syntax
+     * @return true if a built-in syntax has that name
+     */
+    public static boolean isBuiltIn(String name) {
+        return BUILT_IN.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    private static CommentSyntax cStyle(String name, String... extensions) {
+        CommentSyntax syntax = new CommentSyntax(name);
+        syntax.setExtensions(List.of(extensions));
+        syntax.lineComment("//");
+        syntax.blockComment("/*", "*/");
+        syntax.quote("\"");
+        syntax.quote("'");
+        return syntax;
+    }
+
+    /**
+     * Adds a marker starting a comment that runs to the end of the line, such as {@code //} or {@code #}.
+     *
+     * @param marker the marker
+     */
+    public void lineComment(String marker) {
+        lineComments.add(marker);
+    }
+
+    /**
+     * Adds the delimiters of a comment that may span lines, such as {@code /*} and its closing counterpart.
+     *
+     * @param open the delimiter opening the comment
+     * @param close the delimiter closing the comment
+     */
+    public void blockComment(String open, String close) {
+        blockComments.add(new BlockComment(open, close));
+    }
+
+    /**
+     * Adds the delimiter of a string literal that ends at the end of the line, and in which the {@link #getEscape()}
+     * character escapes the next one.
+     *
+     * @param delimiter the delimiter opening and closing the literal
+     */
+    public void quote(String delimiter) {
+        quotes.add(delimiter);
+    }
+
+    /**
+     * Adds the delimiter of a string literal that may span lines and knows no escapes, such as a text block.
+     *
+     * @param delimiter the delimiter opening and closing the literal
+     */
+    public void rawQuote(String delimiter) {
+        rawQuotes.add(delimiter);
+    }
+
+    public String getName() { return this.name; }
+
+    /**
+     * @return the extensions of the files written in the syntax, with their leading dot
+     */
+    public List<String> getExtensions() { return this.extensions; }
+    public void setExtensions(List<String> extensions) { this.extensions = new ArrayList<>(extensions); }
+
+    public List<String> getLineComments() { return this.lineComments; }
+
+    public List<BlockComment> getBlockComments() { return this.blockComments; }
+
+    public boolean isNestedBlockComments() { return this.nestedBlockComments; }
+    public void setNestedBlockComments(boolean nestedBlockComments) { this.nestedBlockComments = nestedBlockComments; }
+
+    public List<String> getQuotes() { return this.quotes; }
+
+    public List<String> getRawQuotes() { return this.rawQuotes; }
+
+    /**
+     * @return the character escaping the next one in quoted literals, empty if there is none
+     */
+    public String getEscape() { return this.escape; }
+    public void setEscape(String escape) { this.escape = escape; }
+
+    /**
+     * @return whether line comments only start at the start of a line or after whitespace
+     */
+    public boolean isLineCommentsAfterWhitespace() { return this.lineCommentsAfterWhitespace; }
+    public void setLineCommentsAfterWhitespace(boolean lineCommentsAfterWhitespace) { this.lineCommentsAfterWhitespace = lineCommentsAfterWhitespace; }
+
+    /**
+     * Describes every rule of the syntax, so that changing any of them changes the parser settings fingerprint.
+     */
+    @Override
+    public String toString() {
+        return name + extensions + " line" + lineComments + " block" + blockComments +
+                (nestedBlockComments ? " nested" : "") + " quote" + quotes + " raw" + rawQuotes +
+                " escape[" + escape + "]" + (lineCommentsAfterWhitespace ? " after whitespace" : "");
+    }
+
+    /**
+     * The delimiters of a block comment.
+     */
+    public static final class BlockComment implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String open;
+        private final String close;
+
+        private BlockComment(String open, String close) {
+            this.open = Objects.requireNonNull(open);
+            this.close = Objects.requireNonNull(close);
+        }
+
+        public String getOpen() {
+            return open;
+        }
+
+        public String getClose() {
+            return close;
+        }
+
+        @Override
+        public String toString() {
+            return open + " " + close;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Single-pass lexer finding todo comments in the sources of a {@link CommentSyntax}. The delimiters of the syntax are
+ * compiled into a table indexed by their first character, so a character that starts no delimiter costs one lookup,
+ * and the longest delimiter matching at a position wins, so that {@code '''} is not lexed as three {@code '}.
+ * Line and column are tracked while lexing, every character is visited once and no regular expression is involved,
+ * so the cost is linear in the size of the input.
+ * <p>
+ * Line comments are reported when {@code TODO} is their first word, block comments when they contain {@code TODO}
+ * anywhere, once per outermost comment when they nest. Comment markers inside string literals are ignored.
+ */
+public final class CommentSyntaxLexer {
+
+    private static final String TODO = "TODO";
+
+    private static final int LINE_COMMENT = 0;
+    private static final int BLOCK_COMMENT = 1;
+    private static final int QUOTE = 2;
+    private static final int RAW_QUOTE = 3;
+
+    // the delimiters starting with every ASCII character, longest first, null if none does
+    private final Delimiter[][] asciiDelimiters = new Delimiter[128][];
+    // the delimiters starting with a non ASCII character, longest first
+    private final Delimiter[] otherDelimiters;
+    private final boolean nestedBlockComments;
+    private final boolean lineCommentsAfterWhitespace;
+    private final int escape;
+
+    /**
+     * Receives the todo comments found by the lexer.
+     */
+    @FunctionalInterface
+    public interface TodoSink {
+        /**
+         * @param textStart offset of the {@code TODO} keyword
+         * @param textEnd offset the comment text ends at, exclusive and without the closing delimiter
+         * @param line 1-based line the comment starts at
+         * @param column 1-based column the comment starts at
+         */
+        void todo(int textStart, int textEnd, int line, int column);
+    }
+
+    /**
+     * @param syntax the syntax to lex
+     * @throws IllegalArgumentException if a delimiter of the syntax is empty, or its escape is longer than a character
+     */
+    public CommentSyntaxLexer(CommentSyntax syntax) {
+        List<Delimiter> delimiters = new ArrayList<>();
+        syntax.getLineComments().forEach(marker -> delimiters.add(new Delimiter(LINE_COMMENT, marker, null)));
+        syntax.getBlockComments().forEach(block -> delimiters.add(new Delimiter(BLOCK_COMMENT, block.getOpen(), block.getClose())));
+        syntax.getQuotes().forEach(quote -> delimiters.add(new Delimiter(QUOTE, quote, quote)));
+        syntax.getRawQuotes().forEach(quote -> delimiters.add(new Delimiter(RAW_QUOTE, quote, quote)));
+        for (Delimiter delimiter : delimiters) {
+            if (delimiter.open.isEmpty() || delimiter.close != null && delimiter.close.isEmpty()) {
+                throw new IllegalArgumentException("Empty delimiter in comment syntax " + syntax.getName());
+            }
+        }
+        if (syntax.getEscape().length() > 1) {
+            throw new IllegalArgumentException("Escape of comment syntax " + syntax.getName() + " is not a single character: " + syntax.getEscape());
+        }
+        delimiters.sort(Comparator.comparingInt((Delimiter delimiter) -> delimiter.open.length()).reversed());
+
+        List<Delimiter> other = new ArrayList<>();
+        for (Delimiter delimiter : delimiters) {
+            char first = delimiter.open.charAt(0);
+            if (first < 128) {
+                Delimiter[] starting = asciiDelimiters[first];
+                List<Delimiter> extended = new ArrayList<>(starting == null ? List.of() : List.of(starting));
+                extended.add(delimiter);
+                asciiDelimiters[first] = extended.toArray(Delimiter[]::new);
+            } else {
+                other.add(delimiter);
+            }
+        }
+        this.otherDelimiters = other.toArray(Delimiter[]::new);
+        this.nestedBlockComments = syntax.isNestedBlockComments();
+        this.lineCommentsAfterWhitespace = syntax.isLineCommentsAfterWhitespace();
+        this.escape = syntax.getEscape().isEmpty() ? -1 : syntax.getEscape().charAt(0);
+    }
+
+    /**
+     * Lexes the given text and reports every comment containing a todo.
+     *
+     * @param text the source text
+     * @param sink the sink the todo comments are reported to, in order of appearance
+     */
+    public void scan(CharSequence text, TodoSink sink) {
+        int length = text.length();
+        int line = 1;
+        int lineStart = 0;
+        int i = 0;
+
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                line++;
+                lineStart = ++i;
+                continue;
+            }
+            Delimiter delimiter = match(text, i, lineStart, c < 128 ? asciiDelimiters[c] : otherDelimiters);
+            if (delimiter == null) {
+                i++;
+            } else if (delimiter.kind == LINE_COMMENT) {
+                int start = i;
+                i += delimiter.open.length();
+                // repeated markers and the indentation before the todo, such as in /// or ## TODO
+                while (i < length && (delimiter.open.indexOf(text.charAt(i)) >= 0 || text.charAt(i) == ' ' || text.charAt(i) == '\t')) {
+                    i++;
+                }
+                int todoStart = i;
+                while (i < length && text.charAt(i) != '\n') {
+                    i++;
+                }
+                if (regionMatches(text, todoStart, i)) {
+                    sink.todo(todoStart, trimCarriageReturn(text, todoStart, i), line, column(text, lineStart, start));
+                }
+            } else if (delimiter.kind == BLOCK_COMMENT) {
+                int startLine = line;
+                int startColumn = column(text, lineStart, i);
+                int todoStart = -1;
+                int depth = 1;
+                i += delimiter.open.length();
+                while (i < length) {
+                    if (startsWith(text, i, delimiter.close)) {
+                        if (--depth == 0) break;
+                        i += delimiter.close.length();
+                    } else if (nestedBlockComments && startsWith(text, i, delimiter.open)) {
+                        depth++;
+                        i += delimiter.open.length();
+                    } else {
+                        char inner = text.charAt(i);
+                        if (inner == '\n') {
+                            line++;
+                            lineStart = i + 1;
+                        } else if (inner == 'T' && todoStart < 0 && regionMatches(text, i, length)) {
+                            todoStart = i;
+                        }
+                        i++;
+                    }
+                }
+                int textEnd = i;
+                i = Math.min(length, i + delimiter.close.length());
+                if (todoStart >= 0) {
+                    sink.todo(todoStart, textEnd, startLine, startColumn);
+                }
+            } else {
+                int start = i;
+                i = delimiter.kind == RAW_QUOTE
+                        ? skipRawQuoted(text, i + delimiter.open.length(), delimiter.close)
+                        : skipQuoted(text, i + delimiter.open.length(), delimiter.close);
+                // raw strings and escaped line breaks span lines, so the line counter catches up with the literal
+                for (int j = start; j < i; j++) {
+                    if (text.charAt(j) == '\n') {
+                        line++;
+                        lineStart = j + 1;
+                    }
+                }
+            }
+        }
+    }
+
+    private Delimiter match(CharSequence text, int i, int lineStart, Delimiter[] candidates) {
+        if (candidates == null) return null;
+        for (Delimiter delimiter : candidates) {
+            if (!startsWith(text, i, delimiter.open)) continue;
+            if (delimiter.kind == LINE_COMMENT && lineCommentsAfterWhitespace && i > lineStart && !Character.isWhitespace(text.charAt(i - 1))) {
+                continue;
+            }
+            return delimiter;
+        }
+        return null;
+    }
+
+    // skips a single-line literal, honouring escapes, returns the offset after the closing delimiter
+    private int skipQuoted(CharSequence text, int i, String close) {
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == escape) {
+                i = Math.min(length, i + 2);
+            } else if (startsWith(text, i, close)) {
+                return i + close.length();
+            } else if (c == '\n') {
+                return i;
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    // skips a literal without escapes, returns the offset after the closing delimiter
+    private static int skipRawQuoted(CharSequence text, int i, String close) {
+        int length = text.length();
+        while (i + close.length() <= length) {
+            if (startsWith(text, i, close)) {
+                i += close.length();
+                // Kotlin allows additional quotes right before closing triple ones, they belong to the string
+                char last = close.charAt(close.length() - 1);
+                while (close.length() > 1 && i < length && text.charAt(i) == last && close.chars().allMatch(c -> c == last)) {
+                    i++;
+                }
+                return i;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private static boolean startsWith(CharSequence text, int i, String delimiter) {
+        if (i + delimiter.length() > text.length()) return false;
+        for (int k = 0; k < delimiter.length(); k++) {
+            if (text.charAt(i + k) != delimiter.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    // a source text may hold several bytes per character, so columns are counted in decoded characters
+    static int column(CharSequence text, int lineStart, int offset) {
+        return text instanceof SourceText source ? source.charCount(lineStart, offset) + 1 : offset - lineStart + 1;
+    }
+
+    static boolean regionMatches(CharSequence text, int from, int to) {
+        if (to - from < TODO.length()) return false;
+        for (int k = 0; k < TODO.length(); k++) {
+            if (text.charAt(from + k) != TODO.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    static int trimCarriageReturn(CharSequence text, int from, int to) {
+        return to > from && text.charAt(to - 1) == '\r' ? to - 1 : to;
+    }
+
+    private static final class Delimiter {
+        private final int kind;
+        private final String open;
+        // the delimiter closing a block comment or a literal, null for line comments
+        private final String close;
+
+        private Delimiter(int kind, String open, String close) {
+            this.kind = kind;
+            this.open = open;
+            this.close = close;
+        }
+    }
+}
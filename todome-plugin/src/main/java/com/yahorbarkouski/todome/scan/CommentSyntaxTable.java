@@ -0,0 +1,52 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The lexers of the comment syntaxes of a scan, keyed by the file extensions they handle, so that a single walk over
+ * the sources dispatches every file to the lexer of its language with one lookup. When several syntaxes claim an
+ * extension, the last one wins, so that a syntax added to the defaults can take over some of their extensions.
+ * <p>
+ * A table is immutable once built and safe to share between the scan workers.
+ */
+public final class CommentSyntaxTable {
+
+    private final Map<String, CommentSyntaxLexer> lexers = new HashMap<>();
+
+    /**
+     * @param syntaxes the syntaxes of the scan
+     * @throws IllegalArgumentException if an extension does not start with a dot, or contains another one
+     */
+    public CommentSyntaxTable(List<CommentSyntax> syntaxes) {
+        for (CommentSyntax syntax : syntaxes) {
+            CommentSyntaxLexer lexer = new CommentSyntaxLexer(syntax);
+            for (String extension : syntax.getExtensions()) {
+                if (!extension.startsWith(".") || extension.lastIndexOf('.') != 0) {
+                    throw new IllegalArgumentException("Extension " + extension + " of comment syntax " + syntax.getName() + " has to be a dot followed by the extension");
+                }
+                lexers.put(extension, lexer);
+            }
+        }
+    }
+
+    /**
+     * @param fileName the name of a file, or the path of an archive entry
+     * @return the lexer of the file, or null if no syntax handles its extension
+     */
+    public @Nullable CommentSyntaxLexer lexer(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? null : lexers.get(fileName.substring(dot));
+    }
+
+    /**
+     * @param fileName the name of a file, or the path of an archive entry
+     * @return true if a syntax handles the extension of the file
+     */
+    public boolean isSource(String fileName) {
+        return lexer(fileName) != null;
+    }
+}
@@ -0,0 +1,240 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Reads the files of a scan ahead of the workers parsing them, on a bounded set of reader threads, so that waiting
+ * for the disk overlaps with parsing instead of stalling the workers. Every file a worker starts schedules the reads
+ * of the next {@link #DEFAULT_READ_AHEAD} files in scan order, the ones that worker, or the one stealing them, gets to
+ * next. The bytes read ahead are bounded by a budget: once it is used up, the readers wait for the workers to consume
+ * what they read.
+ * <p>
+ * A worker never waits for a read that has not started yet, it takes the file over and reads it itself, so the
+ * pipeline cannot deadlock whatever the budget, and a file costs at most the rest of a read already in progress.
+ * Files from {@link SourceReader#DEFAULT_MAP_THRESHOLD} bytes on are left to the workers, which map them.
+ */
+public final class FilePrefetcher implements AutoCloseable {
+
+    public static final int DEFAULT_READ_AHEAD = 16;
+    public static final int DEFAULT_BUDGET_BYTES = 32 << 20;
+
+    // a file scheduled for a read that has not started, a worker getting to it first takes it over
+    private static final int QUEUED = 0;
+    // a file being read, or read, by a reader holding budget for it
+    private static final int READING = 1;
+    // a file started by a worker, not read ahead, or whose read was consumed
+    private static final int TAKEN = 2;
+
+    private final List<File> files;
+    private final Map<String, Integer> positions;
+    private final Predicate<File> needsContent;
+    private final Function<File, ByteBuffer> reader;
+    private final int readAhead;
+    private final int budgetBytes;
+    private final Semaphore budget;
+    private final ExecutorService readers;
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * @param files the files of the scan
+     * @param readerThreads the number of reader threads
+     * @param needsContent whether the content of a file is going to be read when parsed, files that are served from
+     *                     an index are not read ahead
+     */
+    public FilePrefetcher(Collection<File> files, int readerThreads, Predicate<File> needsContent) {
+        this(files, readerThreads, needsContent, DEFAULT_READ_AHEAD, DEFAULT_BUDGET_BYTES, FilePrefetcher::readAllBytes);
+    }
+
+    FilePrefetcher(
+            Collection<File> files,
+            int readerThreads,
+            Predicate<File> needsContent,
+            int readAhead,
+            int budgetBytes,
+            Function<File, ByteBuffer> reader
+    ) {
+        List<File> sorted = new ArrayList<>(files);
+        // the order of the scan engine, which workers walk through
+        sorted.sort(Comparator.comparing(File::getPath));
+        this.files = sorted;
+        this.positions = new HashMap<>(sorted.size() * 2);
+        for (int i = 0; i < sorted.size(); i++) {
+            positions.put(sorted.get(i).getPath(), i);
+        }
+        this.needsContent = needsContent;
+        this.reader = reader;
+        this.readAhead = readAhead;
+        this.budgetBytes = budgetBytes;
+        this.budget = new Semaphore(budgetBytes);
+        AtomicInteger threads = new AtomicInteger();
+        this.readers = Executors.newFixedThreadPool(Math.max(1, readerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "todome-reader-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Wraps the function scanning a single file, so that starting a file schedules the reads of the ones after it,
+     * and the bytes read ahead for a file are dropped once it is done, whether they were consumed or not.
+     *
+     * @param fileScanner the function extracting todos from a single file, reading it through {@link #take(File)}
+     * @return the wrapped function
+     */
+    public Function<File, List<TodoModel>> wrap(Function<File, List<TodoModel>> fileScanner) {
+        return file -> {
+            started(file);
+            try {
+                return fileScanner.apply(file);
+            } finally {
+                done(file);
+            }
+        };
+    }
+
+    /**
+     * Returns the bytes of the given file if they were read ahead, waiting for a read in progress. A file whose read
+     * did not start yet is taken over, so that the caller reads it itself.
+     *
+     * @param file the file to read
+     * @return the content of the file, or null if the caller has to read it
+     */
+    public @Nullable ByteBuffer take(File file) {
+        Slot slot = slots.get(file.getPath());
+        if (slot == null || slot.state.compareAndSet(QUEUED, TAKEN) || slot.state.get() != READING) return null;
+        ByteBuffer bytes = slot.read.join();
+        release(slot);
+        return bytes;
+    }
+
+    private void started(File file) {
+        slots.computeIfAbsent(file.getPath(), path -> new Slot(TAKEN));
+        Integer position = positions.get(file.getPath());
+        if (position == null || closed) return;
+
+        for (int i = position + 1; i <= position + readAhead && i < files.size(); i++) {
+            File next = files.get(i);
+            Slot slot = new Slot(QUEUED);
+            if (slots.putIfAbsent(next.getPath(), slot) == null) {
+                try {
+                    readers.execute(() -> read(next, slot));
+                } catch (RejectedExecutionException e) {
+                    // the prefetcher was closed, the workers read the files left themselves
+                    slot.state.set(TAKEN);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void done(File file) {
+        Slot slot = slots.get(file.getPath());
+        if (slot != null && !slot.state.compareAndSet(QUEUED, TAKEN) && slot.state.get() == READING) {
+            slot.read.join();
+            release(slot);
+        }
+    }
+
+    private void read(File file, Slot slot) {
+        if (closed || slot.state.get() != QUEUED) return;
+        long size = file.length();
+        if (size >= SourceReader.DEFAULT_MAP_THRESHOLD || size > budgetBytes || !needsContent.test(file)) {
+            slot.state.compareAndSet(QUEUED, TAKEN);
+            return;
+        }
+
+        try {
+            budget.acquire((int) size);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            slot.state.compareAndSet(QUEUED, TAKEN);
+            return;
+        }
+        if (!slot.state.compareAndSet(QUEUED, READING)) {
+            budget.release((int) size);
+            return;
+        }
+        slot.reserved = (int) size;
+        try {
+            slot.read.complete(reader.apply(file));
+        } catch (RuntimeException e) {
+            // the worker reads the file again and reports the failure
+            slot.read.complete(null);
+        }
+    }
+
+    private static ByteBuffer readAllBytes(File file) {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void release(Slot slot) {
+        slot.state.set(TAKEN);
+        budget.release(slot.reserved);
+        slot.reserved = 0;
+        slot.read = null;
+    }
+
+    /**
+     * @param file a file of the scan
+     * @return true if the file was read ahead and not consumed yet
+     */
+    boolean isReadAhead(File file) {
+        Slot slot = slots.get(file.getPath());
+        CompletableFuture<ByteBuffer> read = slot == null ? null : slot.read;
+        return slot != null && slot.state.get() == READING && read != null && read.isDone();
+    }
+
+    /**
+     * @return the bytes of the budget available to the readers
+     */
+    int availableBudget() {
+        return budget.availablePermits();
+    }
+
+    /**
+     * Stops the readers, interrupting the ones waiting for budget. Files not read yet are left to the workers.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        readers.shutdownNow();
+    }
+
+    private static final class Slot {
+        private final AtomicInteger state;
+        // completed by the reader, dropped once consumed, so that the slots of done files do not retain their bytes
+        private volatile CompletableFuture<ByteBuffer> read = new CompletableFuture<>();
+        private int reserved;
+
+        private Slot(int state) {
+            this.state = new AtomicInteger(state);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The files, and the lines of them, changed in the working tree since a base revision, as reported by {@code git diff}.
+ * Paths are relative to the directory git ran in, with forward slashes. Files git does not track yet count as changed
+ * as a whole.
+ * <p>
+ * Changes are immutable and serializable, so they can be used as a task input.
+ */
+public final class GitChanges implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int[] WHOLE_FILE = new int[0];
+
+    // the changed line ranges of every changed file, as inclusive start and end pairs, empty for a whole file
+    private final TreeMap<String, int[]> changedLines;
+
+    private GitChanges(TreeMap<String, int[]> changedLines) {
+        this.changedLines = changedLines;
+    }
+
+    /**
+     * Parses the output of {@code git diff --unified=0} and the files listed by {@code git ls-files --others}.
+     * Removed files are left out, as they cannot hold todos anymore, and so are files only losing lines.
+     *
+     * @param diff the diff output, with no context lines
+     * @param untrackedFiles the files not tracked by git, one per line
+     * @return the changes
+     */
+    public static GitChanges parse(String diff, String untrackedFiles) {
+        Map<String, List<int[]>> hunks = new TreeMap<>();
+        String currentFile = null;
+        for (String line : diff.split("\n")) {
+            if (line.startsWith("+++ ")) {
+                currentFile = line.startsWith("+++ b/") ? unquote(line.substring("+++ b/".length())) : null;
+            } else if (line.startsWith("@@ ") && currentFile != null) {
+                int[] range = newRange(line);
+                if (range != null) {
+                    hunks.computeIfAbsent(currentFile, file -> new ArrayList<>()).add(range);
+                }
+            }
+        }
+
+        TreeMap<String, int[]> changedLines = new TreeMap<>();
+        hunks.forEach((file, ranges) -> {
+            int[] flat = new int[ranges.size() * 2];
+            for (int i = 0; i < ranges.size(); i++) {
+                flat[2 * i] = ranges.get(i)[0];
+                flat[2 * i + 1] = ranges.get(i)[1];
+            }
+            changedLines.put(file, flat);
+        });
+        for (String file : untrackedFiles.split("\n")) {
+            if (!file.isBlank()) {
+                changedLines.put(file.strip(), WHOLE_FILE);
+            }
+        }
+        return new GitChanges(changedLines);
+    }
+
+    /**
+     * @param path the path of a file, relative to the directory git ran in
+     * @return true if the file was added or modified
+     */
+    public boolean contains(String path) {
+        return changedLines.containsKey(path);
+    }
+
+    /**
+     * @param path the path of a file, relative to the directory git ran in
+     * @param line the line number, starting at 1
+     * @return true if the line was added or modified
+     */
+    public boolean contains(String path, int line) {
+        int[] ranges = changedLines.get(path);
+        if (ranges == null) return false;
+        if (ranges.length == 0) return true;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (line >= ranges[i] && line <= ranges[i + 1]) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of changed files
+     */
+    public int size() {
+        return changedLines.size();
+    }
+
+    // reads the new side of a hunk header such as "@@ -12,3 +14,5 @@", null if the hunk only removes lines
+    private static int[] newRange(String header) {
+        int plus = header.indexOf(" +");
+        if (plus < 0) return null;
+        int end = header.indexOf(' ', plus + 2);
+        String range = header.substring(plus + 2, end < 0 ? header.length() : end);
+        int comma = range.indexOf(',');
+        try {
+            int start = Integer.parseInt(comma < 0 ? range : range.substring(0, comma));
+            int count = comma < 0 ? 1 : Integer.parseInt(range.substring(comma + 1));
+            return count == 0 ? null : new int[]{start, start + count - 1};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // git quotes paths holding unusual characters, only the quotes are removed, core.quotePath is disabled when run
+    private static String unquote(String path) {
+        String stripped = path.strip();
+        if (stripped.length() >= 2 && stripped.startsWith("\"") && stripped.endsWith("\"")) {
+            return stripped.substring(1, stripped.length() - 1);
+        }
+        return stripped;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof GitChanges changes) || !changedLines.keySet().equals(changes.changedLines.keySet())) {
+            return false;
+        }
+        return changedLines.entrySet().stream()
+                .allMatch(entry -> Arrays.equals(entry.getValue(), changes.changedLines.get(entry.getKey())));
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = changedLines.keySet().hashCode();
+        for (int[] ranges : changedLines.values()) {
+            hash = 31 * hash + Arrays.hashCode(ranges);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return changedLines.size() + " changed files";
+    }
+}
@@ -0,0 +1,74 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+import org.gradle.process.ExecOperations;
+import org.gradle.process.ExecResult;
+import org.jetbrains.annotations.Nullable;
+
+import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lists the {@link GitChanges} of the working tree since a base revision by running the local {@code git}, without
+ * touching the network. The working tree is compared with the commit the current branch forked from the base revision
+ * at, so that a base branch that moved on since does not report its own changes as changes of the working tree. Being a value source, git runs again on every build, also when the configuration is served
+ * from the configuration cache, so the changes are never stale.
+ */
+public abstract class GitChangesSource implements ValueSource<GitChanges, GitChangesSource.Parameters> {
+
+    public interface Parameters extends ValueSourceParameters {
+        /**
+         * The directory git runs in, reported paths are relative to it.
+         */
+        DirectoryProperty getWorkingDirectory();
+
+        /**
+         * The revision the working tree is compared with, no changes are listed when not set.
+         */
+        Property<String> getSince();
+    }
+
+    @Inject
+    protected abstract ExecOperations getExecOperations();
+
+    @Override
+    public @Nullable GitChanges obtain() {
+        if (!getParameters().getSince().isPresent()) return null;
+        String since = getParameters().getSince().get();
+
+        String mergeBase = git("merge-base", since, "HEAD").strip();
+        String diff = git(
+                "diff", "--unified=0", "--no-color", "--no-ext-diff", "--no-renames", "--relative",
+                "--src-prefix=a/", "--dst-prefix=b/", mergeBase, "--"
+        );
+        String untrackedFiles = git("ls-files", "--others", "--exclude-standard");
+        return GitChanges.parse(diff, untrackedFiles);
+    }
+
+    private String git(String... arguments) {
+        List<String> command = new ArrayList<>(List.of("git", "-c", "core.quotePath=false"));
+        command.addAll(List.of(arguments));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+        ExecResult result = getExecOperations().exec(spec -> {
+            spec.commandLine(command);
+            spec.workingDir(getParameters().getWorkingDirectory().get().getAsFile());
+            spec.setStandardOutput(output);
+            spec.setErrorOutput(error);
+            spec.setIgnoreExitValue(true);
+        });
+        if (result.getExitValue() != 0) {
+            throw new IllegalStateException(
+                    "Failed to list the changes since " + getParameters().getSince().get() + ": " +
+                            error.toString(StandardCharsets.UTF_8).strip()
+            );
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,152 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.specs.Spec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Matches the files and directories ignored by the {@code .gitignore} files of a repository.
+ * Used as an exclude spec of a file tree, ignored directories are pruned from the walk instead of being filtered
+ * afterwards. Every {@code .gitignore} applies to the directory it is located in and below, later rules and rules of
+ * deeper files take precedence, and negated, directory-only and anchored rules are supported. The {@code .gitignore}
+ * files are parsed once per directory and cached for the lifetime of the spec.
+ */
+public class GitIgnoreSpec implements Spec<FileTreeElement>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final File root;
+    private transient Map<File, List<Rule>> rules;
+
+    /**
+     * @param root the top directory of the repository, {@code .gitignore} files above it are not considered
+     */
+    public GitIgnoreSpec(File root) {
+        this.root = root;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(FileTreeElement element) {
+        return isIgnored(element.getFile(), element.isDirectory());
+    }
+
+    /**
+     * @param file the file to check
+     * @param directory whether the file is a directory
+     * @return true if the file is ignored by the {@code .gitignore} file of one of its parent directories
+     */
+    public boolean isIgnored(File file, boolean directory) {
+        List<File> parents = new ArrayList<>();
+        for (File parent = file.getParentFile(); parent != null; parent = parent.getParentFile()) {
+            parents.add(0, parent);
+            if (parent.equals(root)) break;
+        }
+        if (parents.isEmpty() || !parents.get(0).equals(root)) return false;
+
+        boolean ignored = false;
+        for (File parent : parents) {
+            String relativePath = parent.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+            for (Rule rule : rules(parent)) {
+                if (rule.matches(relativePath, directory)) {
+                    ignored = !rule.negated;
+                }
+            }
+        }
+        return ignored;
+    }
+
+    private List<Rule> rules(File dir) {
+        if (rules == null) {
+            synchronized (this) {
+                if (rules == null) rules = new ConcurrentHashMap<>();
+            }
+        }
+        return rules.computeIfAbsent(dir, GitIgnoreSpec::parse);
+    }
+
+    private static List<Rule> parse(File dir) {
+        File gitignore = new File(dir, ".gitignore");
+        if (!gitignore.isFile()) return List.of();
+
+        List<Rule> parsed = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(gitignore.toPath())) {
+                Rule rule = Rule.parse(line);
+                if (rule != null) parsed.add(rule);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read " + gitignore, e);
+        }
+        return parsed;
+    }
+
+    private static final class Rule {
+        private final Pattern pattern;
+        private final boolean negated;
+        private final boolean directoryOnly;
+
+        private Rule(Pattern pattern, boolean negated, boolean directoryOnly) {
+            this.pattern = pattern;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+        }
+
+        private boolean matches(String relativePath, boolean directory) {
+            return (directory || !directoryOnly) && pattern.matcher(relativePath).matches();
+        }
+
+        private static Rule parse(String line) {
+            String rule = line.stripTrailing();
+            if (rule.isEmpty() || rule.startsWith("#")) return null;
+
+            boolean negated = rule.startsWith("!");
+            if (negated || rule.startsWith("\\")) rule = rule.substring(1);
+            boolean directoryOnly = rule.endsWith("/");
+            if (directoryOnly) rule = rule.substring(0, rule.length() - 1);
+            // a rule without an inner slash matches at any depth, any other is relative to its .gitignore
+            boolean anchored = rule.contains("/");
+            if (rule.startsWith("/")) rule = rule.substring(1);
+            if (rule.isEmpty()) return null;
+
+            String regex = (anchored ? "" : "(?:.*/)?") + toRegex(rule);
+            return new Rule(Pattern.compile(regex), negated, directoryOnly);
+        }
+
+        private static String toRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    boolean slashFollows = i + 2 < glob.length() && glob.charAt(i + 2) == '/';
+                    regex.append(slashFollows ? "(?:.*/)?" : ".*");
+                    i += slashFollows ? 2 : 1;
+                } else if (c == '*') {
+                    regex.append("[^/]*");
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else if (c == '[') {
+                    int end = glob.indexOf(']', i + 1);
+                    if (end < 0) {
+                        regex.append("\\[");
+                    } else {
+                        String group = glob.substring(i + 1, end).replace("\\", "\\\\");
+                        regex.append('[').append(group.startsWith("!") ? "^" + group.substring(1) : group).append(']');
+                        i = end;
+                    }
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            return regex.toString();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+
+import java.io.File;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory index of the todos of every source file of a scan task, kept by the daemon between builds, so that a
+ * build only has to parse the files Gradle reports as changed since the previous one, without walking the sources or
+ * looking at the unchanged files at all.
+ * <p>
+ * The index is only current for the scan report it was committed with: when the report was written by another
+ * daemon, restored from the build cache or removed since, or when the parser settings changed, the index is stale
+ * and a full scan rebuilds it. Updates are safe to call from concurrent scan workers.
+ * <p>
+ * The todos are held in a {@link TodoTable}. An update appends the new todos of a file and leaves its previous rows
+ * behind, which are dropped when the index is committed, once they outnumber the rows still in use.
+ */
+public final class LiveTodoIndex {
+
+    // the rows of the todos of every file, unfiltered, by path, in the order the scan engine emits files in
+    private final TreeMap<String, Rows> files = new TreeMap<>();
+    private TodoTable table = new TodoTable();
+    // the rows of the table some file still refers to
+    private int liveRows;
+    private String settingsFingerprint;
+    private long reportSize = -1;
+    private long reportLastModified = -1;
+
+    /**
+     * @param report the scan report about to be written again
+     * @param settingsFingerprint the fingerprint of the settings affecting the extraction
+     * @return true if the index holds the todos of the sources the report was written from, with the same settings
+     */
+    public synchronized boolean isCurrent(File report, String settingsFingerprint) {
+        return Objects.equals(this.settingsFingerprint, settingsFingerprint) &&
+                report.isFile() &&
+                report.length() == reportSize &&
+                report.lastModified() == reportLastModified;
+    }
+
+    /**
+     * Marks the index as stale until it is committed again, since the report it was committed with is about to be
+     * overwritten.
+     */
+    public synchronized void invalidate() {
+        settingsFingerprint = null;
+        reportSize = -1;
+        reportLastModified = -1;
+    }
+
+    /**
+     * Drops every file, so that a full scan can rebuild the index.
+     */
+    public synchronized void clear() {
+        invalidate();
+        files.clear();
+        table = new TodoTable();
+        liveRows = 0;
+    }
+
+    /**
+     * Marks the index as current for the given report, once every file of the sources is indexed and the report is
+     * written.
+     *
+     * @param report the written scan report
+     * @param settingsFingerprint the fingerprint of the settings the files were indexed with
+     */
+    public synchronized void commit(File report, String settingsFingerprint) {
+        this.settingsFingerprint = settingsFingerprint;
+        this.reportSize = report.length();
+        this.reportLastModified = report.lastModified();
+        if (table.size() - liveRows > liveRows) {
+            compact();
+        }
+    }
+
+    /**
+     * Replaces the todos of a file. The todos are copied into the table of the index, so that views over other
+     * stores are not retained.
+     *
+     * @param file the added or modified file
+     * @param fileTodos all todos of the file, unfiltered
+     */
+    public synchronized void update(File file, List<TodoModel> fileTodos) {
+        int from = table.addAll(fileTodos);
+        Rows previous = files.put(file.getPath(), new Rows(from, from + fileTodos.size()));
+        liveRows += fileTodos.size() - (previous == null ? 0 : previous.size());
+    }
+
+    /**
+     * @param file the removed file
+     */
+    public synchronized void remove(File file) {
+        Rows previous = files.remove(file.getPath());
+        if (previous != null) {
+            liveRows -= previous.size();
+        }
+    }
+
+    /**
+     * @return the number of indexed files
+     */
+    public synchronized int size() {
+        return files.size();
+    }
+
+    /**
+     * @return the number of rows of the table, including the ones no file refers to anymore
+     */
+    synchronized int tableSize() {
+        return table.size();
+    }
+
+    /**
+     * Hands the todos of every indexed file over to the given sink, in file path order, for as long as it asks for
+     * more.
+     *
+     * @param sink the consumer of the todos, returning false to stop
+     * @return true if every todo was handed over, false if the sink stopped
+     */
+    public synchronized boolean forEachWhile(Predicate<TodoModel> sink) {
+        for (Rows rows : files.values()) {
+            for (int row = rows.from; row < rows.to; row++) {
+                if (!sink.test(table.todo(row))) return false;
+            }
+        }
+        return true;
+    }
+
+    // copies the rows still in use into a new table, which also drops the paths and assignees of removed todos
+    private void compact() {
+        TodoTable compacted = new TodoTable();
+        files.replaceAll((path, rows) -> {
+            int from = compacted.size();
+            for (int row = rows.from; row < rows.to; row++) {
+                compacted.add(table.todo(row));
+            }
+            return new Rows(from, compacted.size());
+        });
+        table = compacted;
+    }
+
+    private static final class Rows {
+        // the rows from, inclusive, to to, exclusive, of the table
+        private final int from;
+        private final int to;
+
+        private Rows(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        private int size() {
+            return to - from;
+        }
+    }
+}
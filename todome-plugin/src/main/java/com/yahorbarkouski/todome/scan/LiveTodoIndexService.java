@@ -0,0 +1,40 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared build service handing out the {@link LiveTodoIndex} of every scan task. Gradle creates the service anew for
+ * every build, while the indexes are held for as long as the daemon keeps the plugin classes loaded, which it does
+ * between builds of the same build script classpath, including the ones of {@code --continuous} mode. At most
+ * {@link #MAX_INDEXES} indexes are kept, the least recently used one is dropped to make room for a new one, so that a
+ * daemon going through many projects does not keep the todos of all of them.
+ */
+public abstract class LiveTodoIndexService implements BuildService<BuildServiceParameters.None> {
+
+    public static final int MAX_INDEXES = 256;
+
+    // in access order, guarded by itself
+    private static final Map<String, LiveTodoIndex> INDEXES = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LiveTodoIndex> eldest) {
+            return size() > MAX_INDEXES;
+        }
+    };
+
+    /**
+     * @param scanReport the scan report of a task, identifying it within the daemon
+     * @return the live index of the task, empty and stale when first asked for or once it was dropped
+     */
+    public LiveTodoIndex index(File scanReport) {
+        synchronized (INDEXES) {
+            return INDEXES.computeIfAbsent(scanReport.getAbsolutePath(), path -> new LiveTodoIndex());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton finding the earliest occurrence of any of a set of words in a single pass.
+ * The automaton is compiled once into a dense transition table over the distinct characters of the words, so matching
+ * costs one table lookup per character however many words there are. Where several words match, the one starting
+ * first wins, and the longest of the words starting at the same position.
+ * <p>
+ * The automaton is immutable, hence safe to use from concurrent scan workers.
+ */
+final class PrefixAutomaton {
+
+    private static final int ASCII = 128;
+
+    // the distinct characters of the words, sorted, and their class for ASCII characters, class 0 is any other character
+    private final char[] alphabet;
+    private final int[] asciiClasses = new int[ASCII];
+    private final int classCount;
+    // transitions[state * classCount + class] is the next state
+    private final int[] transitions;
+    // the length of the longest word ending in each state, 0 if none
+    private final int[] longestMatch;
+    private final int maxLength;
+
+    /**
+     * @param words the words to look for, empty words are ignored
+     */
+    PrefixAutomaton(List<String> words) {
+        int[] characters = String.join("", words).chars().distinct().sorted().toArray();
+        alphabet = new char[characters.length];
+        for (int i = 0; i < characters.length; i++) {
+            alphabet[i] = (char) characters[i];
+        }
+        classCount = alphabet.length + 1;
+        for (int i = 0; i < alphabet.length; i++) {
+            if (alphabet[i] < ASCII) asciiClasses[alphabet[i]] = i + 1;
+        }
+
+        // builds the trie, then turns it into a complete automaton, breadth first along the failure links
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        trie.add(new int[classCount]);
+        lengths.add(0);
+        int longest = 0;
+        for (String word : words) {
+            if (word.isEmpty()) continue;
+            int state = 0;
+            for (int i = 0; i < word.length(); i++) {
+                int cls = classOf(word.charAt(i));
+                if (trie.get(state)[cls] == 0) {
+                    trie.get(state)[cls] = trie.size();
+                    trie.add(new int[classCount]);
+                    lengths.add(0);
+                }
+                state = trie.get(state)[cls];
+            }
+            lengths.set(state, word.length());
+            longest = Math.max(longest, word.length());
+        }
+        maxLength = longest;
+
+        int states = trie.size();
+        transitions = new int[states * classCount];
+        longestMatch = new int[states];
+        int[] failure = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int cls = 0; cls < classCount; cls++) {
+            int next = trie.get(0)[cls];
+            transitions[cls] = next;
+            if (next != 0) queue.add(next);
+        }
+        for (int state = 0; state < states; state++) {
+            longestMatch[state] = lengths.get(state);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            longestMatch[state] = Math.max(longestMatch[state], longestMatch[failure[state]]);
+            for (int cls = 0; cls < classCount; cls++) {
+                int next = trie.get(state)[cls];
+                if (next != 0) {
+                    failure[next] = transitions[failure[state] * classCount + cls];
+                    transitions[state * classCount + cls] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * classCount + cls] = transitions[failure[state] * classCount + cls];
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the earliest word occurring in the given window.
+     *
+     * @param text the text to search
+     * @param start the start of the window, inclusive
+     * @param end the end of the window, exclusive
+     * @return the end offset, exclusive, of the earliest word found, or -1 if none of the words occurs
+     */
+    int findEarliest(CharSequence text, int start, int end) {
+        int bestStart = Integer.MAX_VALUE;
+        int bestEnd = -1;
+        int state = 0;
+        for (int i = start; i < end; i++) {
+            // no word ending from here on can start before the best match anymore
+            if (i - maxLength + 1 > bestStart) break;
+
+            state = transitions[state * classCount + classOf(text.charAt(i))];
+            int length = longestMatch[state];
+            if (length > 0 && i - length + 1 < bestStart) {
+                bestStart = i - length + 1;
+                bestEnd = i + 1;
+            } else if (length > 0 && i - length + 1 == bestStart) {
+                bestEnd = i + 1;
+            }
+        }
+        return bestEnd;
+    }
+
+    private int classOf(char c) {
+        if (c < ASCII) return asciiClasses[c];
+        int found = Arrays.binarySearch(alphabet, c);
+        return found >= 0 ? found + 1 : 0;
+    }
+}
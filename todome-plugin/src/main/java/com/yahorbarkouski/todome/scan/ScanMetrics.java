@@ -0,0 +1,297 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.report.JsonReportWriter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wall and CPU time spent in every phase of a task, and the slowest files it scanned, updated concurrently by the
+ * scan workers. Phase times are summed over the threads running them, so with parallel workers they may add up to
+ * more than the wall time of the task.
+ * <p>
+ * Metrics are only collected when asked for, {@link #NOOP} is used otherwise: it reads no clock and keeps nothing,
+ * so the instrumented code costs a few empty calls per file and todo.
+ */
+public class ScanMetrics {
+
+    /**
+     * The number of slowest files kept by default.
+     */
+    public static final int DEFAULT_SLOWEST_FILES = 10;
+
+    /**
+     * Metrics that collect nothing.
+     */
+    public static final ScanMetrics NOOP = new ScanMetrics(0) {
+        @Override
+        public long wallTime() {
+            return 0;
+        }
+
+        @Override
+        public long cpuTime() {
+            return 0;
+        }
+
+        @Override
+        public void add(Phase phase, long wallNanos, long cpuNanos) {
+        }
+
+        @Override
+        public void fileScanned(String path, long bytes, long wallStart) {
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    public enum Phase {
+        // listing the source files
+        WALK,
+        // reading the content of a file
+        READ,
+        // prefiltering and lexing a file for todo comments
+        LEX,
+        // parsing the assignee and due date of the todos
+        PARSE,
+        // writing the todos to the reports
+        REPORT;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private final LongAdder[] wallNanos = new LongAdder[Phase.values().length];
+    private final LongAdder[] cpuNanos = new LongAdder[Phase.values().length];
+    private final int slowestFiles;
+    // the slowest files so far, the fastest of them on top
+    private final PriorityQueue<FileTime> slowest = new PriorityQueue<>(Comparator.comparingLong(FileTime::getWallNanos));
+    private final long start = System.nanoTime();
+    private long end = -1;
+
+    /**
+     * @param slowestFiles the number of slowest files to keep
+     */
+    public ScanMetrics(int slowestFiles) {
+        this.slowestFiles = slowestFiles;
+        for (int i = 0; i < wallNanos.length; i++) {
+            wallNanos[i] = new LongAdder();
+            cpuNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return the current wall clock time, in nanoseconds, to pass to {@link #record(Phase, long, long)}
+     */
+    public long wallTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @return the CPU time of the current thread, in nanoseconds, or 0 if the JVM cannot measure it
+     */
+    public long cpuTime() {
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Records the time spent in a phase since the given times, on the current thread.
+     *
+     * @param phase the phase
+     * @param wallStart the {@link #wallTime()} when the phase started
+     * @param cpuStart the {@link #cpuTime()} when the phase started
+     */
+    public void record(Phase phase, long wallStart, long cpuStart) {
+        add(phase, wallTime() - wallStart, cpuTime() - cpuStart);
+    }
+
+    /**
+     * @param phase the phase
+     * @param wallNanos the wall time spent in the phase
+     * @param cpuNanos the CPU time spent in the phase
+     */
+    public void add(Phase phase, long wallNanos, long cpuNanos) {
+        this.wallNanos[phase.ordinal()].add(wallNanos);
+        this.cpuNanos[phase.ordinal()].add(cpuNanos);
+    }
+
+    /**
+     * Records the time spent on a file, keeping it if it is one of the slowest so far.
+     *
+     * @param path the path of the file, as reported
+     * @param bytes the size of the file
+     * @param wallStart the {@link #wallTime()} when the file was started
+     */
+    public void fileScanned(String path, long bytes, long wallStart) {
+        FileTime time = new FileTime(path, bytes, wallTime() - wallStart);
+        synchronized (slowest) {
+            if (slowest.size() < slowestFiles) {
+                slowest.add(time);
+            } else if (slowestFiles > 0 && slowest.peek().getWallNanos() < time.getWallNanos()) {
+                slowest.poll();
+                slowest.add(time);
+            }
+        }
+    }
+
+    /**
+     * @return false for {@link #NOOP}, which collects nothing
+     */
+    public boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Ends the wall time of the task, the metrics are only read afterwards.
+     */
+    public void finish() {
+        end = System.nanoTime();
+    }
+
+    public long getWallNanos() {
+        return (end < 0 ? System.nanoTime() : end) - start;
+    }
+
+    public long getWallNanos(Phase phase) {
+        return wallNanos[phase.ordinal()].sum();
+    }
+
+    public long getCpuNanos(Phase phase) {
+        return cpuNanos[phase.ordinal()].sum();
+    }
+
+    /**
+     * @return the slowest files, the slowest first
+     */
+    public List<FileTime> getSlowestFiles() {
+        List<FileTime> files;
+        synchronized (slowest) {
+            files = new ArrayList<>(slowest);
+        }
+        files.sort(Comparator.comparingLong(FileTime::getWallNanos).reversed());
+        return files;
+    }
+
+    /**
+     * Sums the metrics up in a line, such as {@code walk 1.203 ms, read 8.114 ms, ..., 5230.4 files/s}.
+     *
+     * @param statistics the counters of the scan, null if the task did not scan files
+     * @return the summary
+     */
+    public String summary(@Nullable ScanStatistics statistics) {
+        StringBuilder summary = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            if (getWallNanos(phase) == 0) continue;
+            summary.append(phase).append(' ').append(millis(getWallNanos(phase))).append(" ms, ");
+        }
+        summary.append("total ").append(millis(getWallNanos())).append(" ms");
+        if (statistics != null) {
+            summary.append(", ").append(perSecond(statistics.getFiles())).append(" files/s, ")
+                    .append(perSecond(statistics.getBytes())).append(" bytes/s");
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Writes the metrics to the given file as a JSON object.
+     *
+     * @param file the file to write
+     * @param task the path of the task the metrics were collected by
+     * @param statistics the counters of the scan, null if the task did not scan files
+     * @throws IllegalStateException if the file cannot be written
+     */
+    public void write(File file, String task, @Nullable ScanStatistics statistics) {
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            try (Writer out = Files.newBufferedWriter(file.toPath())) {
+                out.write("{\n  \"task\": ");
+                JsonReportWriter.quote(out, task);
+                out.write(",\n  \"wallTimeMs\": " + millis(getWallNanos()));
+                if (statistics != null) {
+                    out.write(",\n  \"files\": " + statistics.getFiles());
+                    out.write(",\n  \"bytes\": " + statistics.getBytes());
+                    out.write(",\n  \"filesPerSecond\": " + perSecond(statistics.getFiles()));
+                    out.write(",\n  \"bytesPerSecond\": " + perSecond(statistics.getBytes()));
+                    out.write(",\n  \"filesFromIndex\": " + statistics.getFilesFromIndex());
+                    out.write(",\n  \"filesRejected\": " + statistics.getFilesRejected());
+                    out.write(",\n  \"filesParsed\": " + statistics.getFilesParsed());
+                }
+                out.write(",\n  \"phases\": {");
+                Phase[] phases = Phase.values();
+                for (int i = 0; i < phases.length; i++) {
+                    out.write(i == 0 ? "\n    " : ",\n    ");
+                    JsonReportWriter.quote(out, phases[i].toString());
+                    out.write(": {\"wallTimeMs\": " + millis(getWallNanos(phases[i])) +
+                            ", \"cpuTimeMs\": " + millis(getCpuNanos(phases[i])) + "}");
+                }
+                out.write("\n  },\n  \"slowestFiles\": [");
+                List<FileTime> files = getSlowestFiles();
+                for (int i = 0; i < files.size(); i++) {
+                    out.write(i == 0 ? "\n    {\"path\": " : ",\n    {\"path\": ");
+                    JsonReportWriter.quote(out, files.get(i).getPath());
+                    out.write(", \"bytes\": " + files.get(i).getBytes() + ", \"wallTimeMs\": " + millis(files.get(i).getWallNanos()) + "}");
+                }
+                out.write(files.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write metrics " + file.getName(), e);
+        }
+    }
+
+    private String perSecond(long count) {
+        long nanos = Math.max(1, getWallNanos());
+        return String.format(Locale.ROOT, "%.1f", count * 1e9 / nanos);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    /**
+     * The wall time spent on a single file.
+     */
+    public static final class FileTime {
+        private final String path;
+        private final long bytes;
+        private final long wallNanos;
+
+        private FileTime(String path, long bytes, long wallNanos) {
+            this.path = path;
+            this.bytes = bytes;
+            this.wallNanos = wallNanos;
+        }
+
+        /**
+         * @return the path of the file, as reported
+         */
+        public String getPath() {
+            return path;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+    }
+}
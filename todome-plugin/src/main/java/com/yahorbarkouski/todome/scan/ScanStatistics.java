@@ -0,0 +1,65 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a single scan, updated concurrently by the scan workers. An archive counts as a single file, parsed if
+ * any of its entries was lexed, rejected otherwise.
+ */
+public class ScanStatistics {
+
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder filesRejected = new LongAdder();
+    private final LongAdder filesParsed = new LongAdder();
+
+    public void fileScanned(long size) {
+        files.increment();
+        bytes.add(size);
+    }
+
+    public void fileRejected() {
+        filesRejected.increment();
+    }
+
+    public void fileParsed() {
+        filesParsed.increment();
+    }
+
+    public long getFiles() {
+        return files.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * @return the number of files the prefilter proved to contain no todo, so they were not lexed
+     */
+    public long getFilesRejected() {
+        return filesRejected.sum();
+    }
+
+    /**
+     * @return the number of files that were lexed
+     */
+    public long getFilesParsed() {
+        return filesParsed.sum();
+    }
+
+    /**
+     * @return the number of files served from the index, without being read
+     */
+    public long getFilesFromIndex() {
+        return getFiles() - getFilesRejected() - getFilesParsed();
+    }
+
+    @Override
+    public String toString() {
+        return "scanned " + getFiles() + " files (" + getBytes() + " bytes): " +
+                getFilesFromIndex() + " served from the index, " +
+                getFilesRejected() + " rejected by the TODO prefilter, " +
+                getFilesParsed() + " parsed";
+    }
+}
@@ -0,0 +1,100 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads the sources packed in a ZIP archive, such as a {@code -sources.jar}, straight from the archive: entries are
+ * located through its central directory and inflated into memory one at a time, nothing is extracted to disk.
+ * The todos of an entry are reported at {@code <archive>!/<entry>}, the notation of JAR URLs.
+ */
+public final class SourceArchive {
+
+    /**
+     * The extensions of the files read as archives.
+     */
+    public static final List<String> EXTENSIONS = Arrays.asList(".jar", ".zip");
+
+    /**
+     * Separates the path of an archive from the name of one of its entries.
+     */
+    public static final String ENTRY_SEPARATOR = "!/";
+
+    private SourceArchive() {
+    }
+
+    /**
+     * @param file the file to check
+     * @return true if the file has an archive extension
+     */
+    public static boolean isArchive(File file) {
+        String name = file.getName();
+        return EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    /**
+     * @param archive the archive
+     * @param entryName the name of an entry of the archive
+     * @return the path todos of the entry are reported at
+     */
+    public static String entryPath(File archive, String entryName) {
+        return archive.getPath() + ENTRY_SEPARATOR + entryName;
+    }
+
+    /**
+     * Hands the content of every file entry of the archive passing the given filter over to the consumer, in entry
+     * name order, so that the todos of an archive come in the same order whatever the order it was packed in.
+     *
+     * @param archive the archive to read
+     * @param entryFilter the condition the name of an entry has to satisfy in order to be read
+     * @param consumer the consumer of the entries, the content is only valid until it returns
+     * @throws IllegalStateException if the archive cannot be read
+     */
+    public static void forEachEntry(File archive, Predicate<String> entryFilter, EntryConsumer consumer) {
+        try (ZipFile zip = new ZipFile(archive)) {
+            ZipEntry[] entries = zip.stream()
+                    .filter(entry -> !entry.isDirectory() && entryFilter.test(entry.getName()))
+                    .sorted(Comparator.comparing(ZipEntry::getName))
+                    .toArray(ZipEntry[]::new);
+            // reused by the entries of the archive, only grown for entries larger than every previous one
+            byte[] buffer = new byte[0];
+            for (ZipEntry entry : entries) {
+                ByteBuffer content;
+                try (InputStream in = zip.getInputStream(entry)) {
+                    long size = entry.getSize();
+                    if (size >= 0 && size <= Integer.MAX_VALUE - 8) {
+                        if (buffer.length < size) {
+                            buffer = new byte[(int) size];
+                        }
+                        content = ByteBuffer.wrap(buffer, 0, in.readNBytes(buffer, 0, (int) size)).slice();
+                    } else {
+                        content = ByteBuffer.wrap(in.readAllBytes());
+                    }
+                }
+                consumer.accept(entryPath(archive, entry.getName()), content);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read archive " + archive.getName(), e);
+        }
+    }
+
+    /**
+     * Receives the content of the entries of an archive.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * @param path the path todos of the entry are reported at, see {@link #entryPath(File, String)}
+         * @param content the content of the entry
+         */
+        void accept(String path, ByteBuffer content);
+    }
+}
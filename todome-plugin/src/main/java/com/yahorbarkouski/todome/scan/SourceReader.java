@@ -0,0 +1,114 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads source files for lexing without decoding them as a whole.
+ * Files in an ASCII compatible charset are exposed as a {@link SourceText} over their raw bytes: files of at least
+ * {@link #DEFAULT_MAP_THRESHOLD} bytes are memory mapped, smaller ones are read into a buffer pooled per thread, so the
+ * heap usage does not grow with the file size. Files in other charsets, such as UTF-16, are decoded into a string.
+ * <p>
+ * The text returned by {@link #read(File)} is only valid until the next call on the same thread.
+ */
+public class SourceReader {
+
+    public static final int DEFAULT_MAP_THRESHOLD = 1 << 20;
+
+    // every scanning thread keeps one buffer for the files below the map threshold
+    private static final ThreadLocal<ByteBuffer> pooledBuffer = ThreadLocal.withInitial(() -> ByteBuffer.allocate(64 * 1024));
+
+    private static final String ASCII_PROBE = "/*\"'\\\n\r\t TODO@0123456789";
+
+    private final Charset charset;
+    private final boolean byteLexable;
+    private final int mapThreshold;
+
+    public SourceReader(Charset charset) {
+        this(charset, DEFAULT_MAP_THRESHOLD);
+    }
+
+    SourceReader(Charset charset, int mapThreshold) {
+        this.charset = charset;
+        this.byteLexable = isAsciiCompatible(charset);
+        this.mapThreshold = mapThreshold;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Reads the given file.
+     *
+     * @param file the file to read
+     * @return the content of the file
+     * @throws IllegalStateException if an error occurs while reading the file
+     */
+    public CharSequence read(File file) {
+        return text(readBytes(file));
+    }
+
+    /**
+     * Reads the raw bytes of the given file, to be exposed as text by {@link #text(ByteBuffer)}.
+     *
+     * @param file the file to read
+     * @return the content of the file, only valid until the next call on the same thread
+     * @throws IllegalStateException if an error occurs while reading the file
+     */
+    public ByteBuffer readBytes(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("File " + file.getName() + " is too large to be scanned");
+            }
+            return size >= mapThreshold
+                    ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                    : readPooled(channel, (int) size);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read file " + file.getName(), e);
+        }
+    }
+
+    /**
+     * Exposes the bytes of a file read elsewhere, such as by a {@link FilePrefetcher}, as {@link #read(File)} does.
+     *
+     * @param bytes the content of the file
+     * @return the content of the file
+     */
+    public CharSequence text(ByteBuffer bytes) {
+        return byteLexable ? new SourceText(bytes, charset) : charset.decode(bytes).toString();
+    }
+
+    private static ByteBuffer readPooled(FileChannel channel, int size) throws IOException {
+        ByteBuffer buffer = pooledBuffer.get();
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Integer.highestOneBit(size) << 1);
+            pooledBuffer.set(buffer);
+        }
+        buffer.clear().limit(size);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // keep reading until the buffer is full or the file ends
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Checks whether the bytes of the given charset can be lexed directly: ASCII characters have to be encoded as
+     * their single ASCII byte, and other characters must never produce bytes in the ASCII range.
+     *
+     * @param charset the charset to check
+     * @return true if files in this charset can be lexed without decoding them
+     */
+    static boolean isAsciiCompatible(Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)) return true;
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1) return false;
+        return Arrays.equals(ASCII_PROBE.getBytes(charset), ASCII_PROBE.getBytes(StandardCharsets.US_ASCII));
+    }
+}
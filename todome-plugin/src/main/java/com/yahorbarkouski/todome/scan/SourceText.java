@@ -0,0 +1,86 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Character view over the raw bytes of a source file in an ASCII compatible charset.
+ * Every byte is exposed as one character, which is exact for the ASCII characters comments and literals are made of,
+ * and harmless for the bytes of other characters, since in such charsets they never take an ASCII value. The bytes are
+ * lexed in place, and only the regions asked for through {@link #subSequence(int, int)} are decoded with the actual
+ * charset, so a file is never decoded as a whole.
+ */
+public final class SourceText implements CharSequence {
+
+    private final ByteBuffer bytes;
+    private final Charset charset;
+    private final boolean utf8;
+
+    /**
+     * @param bytes the file content, positioned at its start, is not modified
+     * @param charset the ASCII compatible charset of the content
+     */
+    public SourceText(ByteBuffer bytes, Charset charset) {
+        this.bytes = bytes.slice();
+        this.charset = charset;
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
+    }
+
+    @Override
+    public int length() {
+        return bytes.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(index) & 0xFF);
+    }
+
+    /**
+     * Decodes the given region with the charset of the text.
+     *
+     * @param start the start offset, inclusive
+     * @param end the end offset, exclusive
+     * @return the decoded region
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return charset.decode(bytes.slice(start, end - start)).toString();
+    }
+
+    /**
+     * Counts the UTF-16 characters the given region decodes to, without decoding it.
+     *
+     * @param start the start offset, inclusive
+     * @param end the end offset, exclusive
+     * @return the number of characters in the region
+     */
+    public int charCount(int start, int end) {
+        if (!utf8) return end - start;
+
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            int b = bytes.get(i) & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                // a four byte sequence is a supplementary character, taking two UTF-16 characters
+                count += b >= 0xF0 ? 2 : 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the raw bytes contain {@code TODO}, without decoding them.
+     *
+     * @return false if the text definitely contains no todo
+     */
+    public boolean mayContainTodo() {
+        return TodoPrefilter.containsTodo(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+}
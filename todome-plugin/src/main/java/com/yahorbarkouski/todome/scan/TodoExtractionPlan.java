@@ -0,0 +1,254 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the assignee and the due date of a todo comment, precompiled once per scan from the extension settings.
+ * Both are read straight from a window of the file content, without copying the comment, running regular
+ * expressions or building streams:
+ * <ul>
+ *     <li>the assignee is the word following the first mention symbol, assignee names are interned per thread, so
+ *     the same assignee does not allocate a new string for every todo</li>
+ *     <li>the due date follows the earliest configured prefix of the comment, all prefixes are looked for at once by
+ *     a {@link PrefixAutomaton}, numeric date formats made of {@code d}, {@code dd}, {@code M}, {@code MM},
+ *     {@code yyyy} or {@code uuuu} fields and literal separators are parsed field by field, any other format or any text the fast path is not sure about is handed over to the
+ *     {@link DateTimeFormatter}, which keeps the results identical to parsing the text with it</li>
+ * </ul>
+ * A plan is safe to use from concurrent scan workers.
+ */
+public final class TodoExtractionPlan {
+
+    public static final String UNASSIGNED = "unassigned";
+
+    private static final int NAME_TABLE_SIZE = 256;
+
+    private final char[] mentionSymbol;
+    private final PrefixAutomaton dueDatePrefixes;
+    private final int dateWindow;
+    private final DateTimeFormatter formatter;
+    // the numeric fields of the date format, null when the format has to be parsed by the formatter
+    private final DateField[] dateFields;
+    private final boolean asciiOnly;
+    private final ThreadLocal<String[]> names = ThreadLocal.withInitial(() -> new String[NAME_TABLE_SIZE]);
+
+    /**
+     * @param mentionSymbol the symbol preceding the assignee name
+     * @param dueDatePrefixes the prefixes preceding the due date, in order of precedence
+     * @param dateFormat the pattern of the due date
+     */
+    public TodoExtractionPlan(String mentionSymbol, List<String> dueDatePrefixes, String dateFormat) {
+        this.mentionSymbol = mentionSymbol.toCharArray();
+        this.dueDatePrefixes = new PrefixAutomaton(dueDatePrefixes);
+        this.dateWindow = dateFormat.length() + 1;
+        this.formatter = DateTimeFormatter.ofPattern(dateFormat);
+        this.dateFields = compile(dateFormat);
+        this.asciiOnly = dateFields != null && isAscii(mentionSymbol) && dueDatePrefixes.stream().allMatch(TodoExtractionPlan::isAscii);
+    }
+
+    /**
+     * Whether the plan only ever matches ASCII characters, in which case it can run over a {@link SourceText}
+     * directly. Otherwise, the todo comment has to be decoded first.
+     *
+     * @return true if the plan can be applied to the raw bytes of an ASCII compatible file
+     */
+    public boolean isAsciiOnly() {
+        return asciiOnly;
+    }
+
+    /**
+     * Extracts the assignee of the todo comment in the given window.
+     *
+     * @param text the content holding the comment
+     * @param start the start of the comment, inclusive
+     * @param end the end of the comment, exclusive
+     * @return the assignee name, or {@value #UNASSIGNED} if the comment mentions nobody
+     */
+    public String assignee(CharSequence text, int start, int end) {
+        for (int at = indexOf(text, start, end, mentionSymbol); at >= 0; at = indexOf(text, at + 1, end, mentionSymbol)) {
+            int nameStart = at + mentionSymbol.length;
+            int nameEnd = nameStart;
+            while (nameEnd < end && isWordChar(text.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            if (nameEnd > nameStart) {
+                return name(text, nameStart, nameEnd);
+            }
+        }
+        return UNASSIGNED;
+    }
+
+    /**
+     * Extracts the due date of the todo comment in the given window. The date is expected right after the earliest
+     * prefix occurring in the comment, within the length of the date format. All prefixes are looked for at once, so
+     * the cost does not grow with the number of prefixes.
+     *
+     * @param text the content holding the comment
+     * @param start the start of the comment, inclusive
+     * @param end the end of the comment, exclusive
+     * @return the due date, or null if the comment has no prefix or no valid date follows it
+     */
+    public LocalDate dueDate(CharSequence text, int start, int end) {
+        int dateStart = dueDatePrefixes.findEarliest(text, start, end);
+        if (dateStart < 0) return null;
+
+        int dateEnd = Math.min(end, dateStart + dateWindow);
+        while (dateStart < dateEnd && text.charAt(dateStart) <= ' ') dateStart++;
+        while (dateEnd > dateStart && text.charAt(dateEnd - 1) <= ' ') dateEnd--;
+        return parseDate(text, dateStart, dateEnd);
+    }
+
+    private LocalDate parseDate(CharSequence text, int start, int end) {
+        if (dateFields != null) {
+            LocalDate parsed = parseNumericDate(text, start, end);
+            if (parsed != null) return parsed;
+        }
+        try {
+            return LocalDate.parse(text.subSequence(start, end), formatter);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // parses the plain numeric dates, returns null whenever the formatter has to decide
+    private LocalDate parseNumericDate(CharSequence text, int start, int end) {
+        int day = 0;
+        int month = 0;
+        int year = 0;
+        int pos = start;
+        for (DateField field : dateFields) {
+            if (field.kind == DateField.LITERAL) {
+                if (pos >= end || text.charAt(pos) != field.literal) return null;
+                pos++;
+                continue;
+            }
+            int value = 0;
+            int digits = 0;
+            // one more digit than allowed is read, so that longer numbers are left to the formatter
+            int readable = field.fixedWidthNext ? field.maxDigits : field.maxDigits + 1;
+            while (pos < end && digits < readable && isDigit(text.charAt(pos))) {
+                value = value * 10 + text.charAt(pos++) - '0';
+                digits++;
+            }
+            if (digits < field.minDigits || digits > field.maxDigits) return null;
+            switch (field.kind) {
+                case DateField.DAY -> day = value;
+                case DateField.MONTH -> month = value;
+                default -> year = value;
+            }
+        }
+        if (pos != end || day < 1 || day > 31 || month < 1 || month > 12 || year < 1) return null;
+        // day overflows are clamped to the end of the month, as the smart resolver of the formatter does
+        return LocalDate.of(year, month, Math.min(day, Month.of(month).length(Year.isLeap(year))));
+    }
+
+    // returns the interned name of the window, so that recurring assignees are not allocated again
+    private String name(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        String[] table = names.get();
+        int slot = (hash ^ (hash >>> 16)) & (NAME_TABLE_SIZE - 1);
+        String cached = table[slot];
+        if (cached != null && contentEquals(cached, text, start, end)) {
+            return cached;
+        }
+        String name = text.subSequence(start, end).toString();
+        table[slot] = name;
+        return name;
+    }
+
+    private static boolean contentEquals(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) return false;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != text.charAt(start + i)) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence text, int from, int end, char[] pattern) {
+        if (pattern.length == 0) return -1;
+        char first = pattern[0];
+        for (int i = from, last = end - pattern.length; i <= last; i++) {
+            if (text.charAt(i) != first) continue;
+            int matched = 1;
+            while (matched < pattern.length && text.charAt(i + matched) == pattern[matched]) {
+                matched++;
+            }
+            if (matched == pattern.length) return i;
+        }
+        return -1;
+    }
+
+    private static DateField[] compile(String dateFormat) {
+        List<DateField> fields = new ArrayList<>();
+        for (int i = 0; i < dateFormat.length(); ) {
+            char c = dateFormat.charAt(i);
+            int run = 1;
+            while (i + run < dateFormat.length() && dateFormat.charAt(i + run) == c) run++;
+
+            if (c == 'd' && run <= 2) {
+                fields.add(new DateField(DateField.DAY, run, 2, c));
+            } else if (c == 'M' && run <= 2) {
+                fields.add(new DateField(DateField.MONTH, run, 2, c));
+            } else if ((c == 'y' || c == 'u') && run == 4) {
+                fields.add(new DateField(DateField.YEAR, 4, 4, c));
+            } else if (Character.isLetter(c) || c == '\'' || c == '[' || c == ']' || c == '#' || c == '{' || c == '}' || c > 0x7F) {
+                return null;
+            } else {
+                for (int r = 0; r < run; r++) {
+                    fields.add(new DateField(DateField.LITERAL, 0, 0, c));
+                }
+            }
+            i += run;
+        }
+        for (int i = 0; i + 1 < fields.size(); i++) {
+            DateField field = fields.get(i);
+            if (field.kind != DateField.LITERAL && fields.get(i + 1).kind != DateField.LITERAL) {
+                // adjacent numbers can only be told apart by their width, which the formatter resolves on its own
+                if (field.minDigits != field.maxDigits) return null;
+                field.fixedWidthNext = true;
+            }
+        }
+        return fields.toArray(DateField[]::new);
+    }
+
+    private static boolean isWordChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || isDigit(c) || c == '_';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAscii(String value) {
+        return value.chars().allMatch(c -> c < 0x80);
+    }
+
+    private static final class DateField {
+        private static final int LITERAL = 0;
+        private static final int DAY = 1;
+        private static final int MONTH = 2;
+        private static final int YEAR = 3;
+
+        private final int kind;
+        private final int minDigits;
+        private final int maxDigits;
+        private final char literal;
+        // whether a number directly follows this fixed width number
+        private boolean fixedWidthNext;
+
+        private DateField(int kind, int minDigits, int maxDigits, char literal) {
+            this.kind = kind;
+            this.minDigits = minDigits;
+            this.maxDigits = maxDigits;
+            this.literal = literal;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent index mapping every scanned file to the todos extracted from it.
+ * A file is keyed by its path, size, modification time and content hash: when the size and modification time still
+ * match, the cached todos are served without touching the file, when only the modification time changed, the content
+ * hash decides whether the file has to be parsed again. The hash of a parsed file is taken from the bytes the
+ * {@link Extractor} read, so that a new or changed file is only read once. The whole index is discarded as soon as the parser settings
+ * fingerprint differs from the one it was written with, since those settings change what gets extracted.
+ * <p>
+ * The indexed todos are held in {@link TodoTable}s rather than as objects, one table for the todos loaded from disk
+ * and one for the files parsed during the current scan, since the index keeps the todos of every scanned file in
+ * memory until it is saved.
+ * <p>
+ * The todos of an archive carry the paths of its entries, which start with the path of the archive, so only the rest of
+ * them is stored with every todo.
+ * <p>
+ * Lookups are safe to call from concurrent scan workers. Only files looked up during the current scan survive
+ * {@link #save()}, so deleted files drop out of the index automatically, unless the scan only covered part of the
+ * sources and {@link #retainUnvisited()} kept the others.
+ */
+public class TodoIndexCache {
+
+    private static final Logger logger = Logging.getLogger(TodoIndexCache.class);
+    // bumped whenever the file format or the way todos are extracted changes
+    private static final int FORMAT_VERSION = 4;
+    private static final long NO_DUE_DATE = Long.MIN_VALUE;
+    private static final byte[] NO_HASH = new byte[0];
+
+    private final File indexFile;
+    private final String settingsFingerprint;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    // the todos of the files parsed during this scan, appended to by concurrent workers under its lock
+    private final TodoTable parsed = new TodoTable();
+
+    private TodoIndexCache(File indexFile, String settingsFingerprint, Map<String, Entry> previous) {
+        this.indexFile = indexFile;
+        this.settingsFingerprint = settingsFingerprint;
+        this.previous = previous;
+    }
+
+    /**
+     * Loads the index from disk. A missing, unreadable or outdated index results in an empty one.
+     *
+     * @param indexFile the file the index is persisted to
+     * @param settingsFingerprint the fingerprint of the settings affecting the extraction
+     * @return the loaded index
+     */
+    public static TodoIndexCache load(File indexFile, String settingsFingerprint) {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        // only read by the workers once loaded, so it needs no lock
+        TodoTable loaded = new TodoTable();
+        if (indexFile.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+                if (in.readInt() == FORMAT_VERSION && in.readUTF().equals(settingsFingerprint)) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String path = in.readUTF();
+                        entries.put(path, Entry.read(in, path, loaded));
+                    }
+                } else {
+                    logger.info("TODO index {} was written with different settings, rescanning all files", indexFile);
+                }
+            } catch (IOException e) {
+                logger.info("Failed to read TODO index {}, rescanning all files", indexFile, e);
+                entries.clear();
+            }
+        }
+        return new TodoIndexCache(indexFile, settingsFingerprint, entries);
+    }
+
+    /**
+     * Returns the todos of the given file, either from the index or by running the extractor on it.
+     *
+     * @param file the file to look up
+     * @param extractor extracts all todos of a file that is not in the index, or has changed since it was indexed
+     * @return all todos of the file, unfiltered
+     */
+    public List<TodoModel> todos(File file, Extractor extractor) {
+        String path = file.getPath();
+        long size = file.length();
+        long lastModified = file.lastModified();
+
+        Entry cached = previous.get(path);
+        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+            current.put(path, cached);
+            return cached.todos();
+        }
+
+        // the content of a file of another size changed anyway, it is only hashed when that may spare parsing it
+        if (cached != null && cached.size == size && cached.hash.length > 0) {
+            byte[] hash = hash(file);
+            if (Arrays.equals(cached.hash, hash)) {
+                current.put(path, new Entry(size, lastModified, hash, cached.table, cached.from, cached.to));
+                return cached.todos();
+            }
+        }
+
+        ContentHash hash = new ContentHash();
+        List<TodoModel> todos = extractor.extract(file, hash);
+        int from;
+        synchronized (parsed) {
+            from = parsed.addAll(todos);
+        }
+        current.put(path, new Entry(size, lastModified, hash.digest(), parsed, from, from + todos.size()));
+        return todos;
+    }
+
+    /**
+     * Tells whether the given file is served from the index without being read, as its size and modification time
+     * still match the ones it was indexed with.
+     *
+     * @param file the file to check
+     * @return true if the file is indexed and unchanged
+     */
+    public boolean isUnchanged(File file) {
+        Entry cached = previous.get(file.getPath());
+        return cached != null && cached.size == file.length() && cached.lastModified == file.lastModified();
+    }
+
+    /**
+     * Keeps the entries of the files not looked up during the current scan, for scans only covering part of the
+     * sources, such as the files changed since a base revision, so that the other files are still served from the
+     * index by the next full scan.
+     */
+    public void retainUnvisited() {
+        previous.forEach(current::putIfAbsent);
+    }
+
+    /**
+     * Writes all entries looked up since the index was loaded back to disk, replacing the previous index atomically.
+     */
+    public void save() {
+        try {
+            Files.createDirectories(indexFile.getParentFile().toPath());
+            File tmp = new File(indexFile.getPath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(settingsFingerprint);
+                out.writeInt(current.size());
+                for (Map.Entry<String, Entry> entry : current.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    entry.getValue().write(out, entry.getKey());
+                }
+            }
+            Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write TODO index {}", indexFile, e);
+        }
+    }
+
+    private static byte[] hash(File file) {
+        MessageDigest digest = sha256();
+        update(digest, file);
+        return digest.digest();
+    }
+
+    // hashes the file in chunks, so that large files are never held on the heap as a whole
+    private static void update(MessageDigest digest, File file) {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read file " + file.getName(), e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Extracts the todos of a file that is not in the index, or has changed since it was indexed.
+     */
+    @FunctionalInterface
+    public interface Extractor {
+        /**
+         * @param file the file to extract the todos of
+         * @param hash the hash of the file, to be handed the content of the file as it is read
+         * @return all todos of the file, unfiltered
+         */
+        List<TodoModel> extract(File file, ContentHash hash);
+    }
+
+    /**
+     * The content hash of a file being extracted, computed from the bytes the extractor reads anyway, or from the file
+     * itself for a file that is not read as a whole, such as an archive read entry by entry. A file whose content is
+     * never handed over is indexed without a hash, and parsed again whenever its modification time changes.
+     */
+    public static final class ContentHash {
+
+        private final MessageDigest digest = sha256();
+        private boolean updated;
+
+        private ContentHash() {
+        }
+
+        /**
+         * @param content the whole content of the file, left as it is
+         */
+        public void update(ByteBuffer content) {
+            digest.update(content.duplicate());
+            updated = true;
+        }
+
+        /**
+         * @param file the file to hash the content of, read in chunks
+         */
+        public void update(File file) {
+            TodoIndexCache.update(digest, file);
+            updated = true;
+        }
+
+        private byte[] digest() {
+            return updated ? digest.digest() : NO_HASH;
+        }
+    }
+
+    private static final class Entry {
+        private final long size;
+        private final long lastModified;
+        private final byte[] hash;
+        // the todos of the file are the rows from, inclusive, to to, exclusive, of the table
+        private final TodoTable table;
+        private final int from;
+        private final int to;
+
+        private Entry(long size, long lastModified, byte[] hash, TodoTable table, int from, int to) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.table = table;
+            this.from = from;
+            this.to = to;
+        }
+
+        private List<TodoModel> todos() {
+            return table.todos(from, to);
+        }
+
+        private void write(DataOutputStream out, String path) throws IOException {
+            out.writeLong(size);
+            out.writeLong(lastModified);
+            out.writeShort(hash.length);
+            out.write(hash);
+            out.writeInt(to - from);
+            for (int row = from; row < to; row++) {
+                out.writeUTF(table.assignee(row));
+                // empty for the todos of a plain file, the separator and entry name for the ones of an archive
+                out.writeUTF(table.filePath(row).substring(path.length()));
+                out.writeLong(table.epochDay(row) == TodoTable.NO_DUE_DATE ? NO_DUE_DATE : table.epochDay(row));
+                out.writeInt(table.line(row));
+                out.writeInt(table.column(row));
+            }
+        }
+
+        private static Entry read(DataInputStream in, String path, TodoTable table) throws IOException {
+            long size = in.readLong();
+            long lastModified = in.readLong();
+            byte[] hash = new byte[in.readUnsignedShort()];
+            in.readFully(hash);
+            int count = in.readInt();
+            int from = table.size();
+            for (int i = 0; i < count; i++) {
+                String assignee = in.readUTF();
+                String entry = in.readUTF();
+                long epochDay = in.readLong();
+                table.add(
+                        assignee,
+                        epochDay == NO_DUE_DATE ? null : LocalDate.ofEpochDay(epochDay),
+                        entry.isEmpty() ? path : path + entry,
+                        in.readInt(),
+                        in.readInt()
+                );
+            }
+            return new Entry(size, lastModified, hash, table, from, from + count);
+        }
+    }
+}
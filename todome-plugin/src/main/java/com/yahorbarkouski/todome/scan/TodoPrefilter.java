@@ -0,0 +1,65 @@
+package com.yahorbarkouski.todome.scan;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Cheap check rejecting files that cannot contain a todo before they are lexed.
+ * Raw bytes are searched eight at a time: every word is XOR-ed with a word of {@code 'T'} bytes, and the classic
+ * "has zero byte" bit trick flags the positions of candidate {@code 'T'} bytes, which are then confirmed against the
+ * remaining {@code "ODO"}. A word without any {@code 'T'} is skipped with a handful of arithmetic operations, without
+ * branching on individual bytes.
+ */
+public final class TodoPrefilter {
+
+    private static final long T_BYTES = 0x5454545454545454L;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private TodoPrefilter() {
+    }
+
+    /**
+     * Checks whether the given content may contain a todo.
+     *
+     * @param content the content of a file, as returned by the {@link SourceReader}
+     * @return false if the content definitely contains no {@code TODO}
+     */
+    public static boolean mayContainTodo(CharSequence content) {
+        if (content instanceof SourceText source) return source.mayContainTodo();
+        return content.toString().contains("TODO");
+    }
+
+    /**
+     * Searches the given bytes, from index zero to their limit, for the ASCII bytes of {@code TODO}.
+     *
+     * @param bytes the bytes to search, not modified
+     * @return true if the bytes contain {@code TODO}
+     */
+    public static boolean containsTodo(ByteBuffer bytes) {
+        ByteBuffer buffer = bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int limit = buffer.limit();
+        int i = 0;
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            long word = buffer.getLong(i) ^ T_BYTES;
+            long candidates = (word - LOW_BITS) & ~word & HIGH_BITS;
+            while (candidates != 0) {
+                // little endian, so the lowest flagged bit belongs to the byte at the lowest offset
+                if (matchesAt(buffer, i + (Long.numberOfTrailingZeros(candidates) >>> 3), limit)) return true;
+                candidates &= candidates - 1;
+            }
+        }
+        for (; i < limit; i++) {
+            if (matchesAt(buffer, i, limit)) return true;
+        }
+        return false;
+    }
+
+    private static boolean matchesAt(ByteBuffer buffer, int offset, int limit) {
+        return offset + 3 < limit &&
+                buffer.get(offset) == 'T' &&
+                buffer.get(offset + 1) == 'O' &&
+                buffer.get(offset + 2) == 'D' &&
+                buffer.get(offset + 3) == 'O';
+    }
+}
@@ -0,0 +1,262 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Binary report of every todo found by a scan, shared by the tasks reporting on them.
+ * Todos are grouped by file, and file paths are stored relative to a root directory, so that a report restored from
+ * the build cache into another checkout still resolves to the right files. Reports are written and read one todo at
+ * a time, so neither side has to hold all todos in memory. Whether the scan covered every file is recorded both at
+ * the end of the report and in its header, so that it can be told without reading the todos.
+ */
+public final class TodoReport {
+
+    // bumped whenever the file format changes
+    private static final int FORMAT_VERSION = 3;
+    // the header is the format version followed by the tag the report ends with
+    private static final int END_TAG_OFFSET = Integer.BYTES;
+    private static final long NO_DUE_DATE = Long.MIN_VALUE;
+    // every todo record starts with a tag telling whether it belongs to the file of the previous one
+    private static final byte END = 0;
+    private static final byte SAME_FILE = 1;
+    private static final byte NEW_FILE = 2;
+    // ends a report the scan of which was stopped early, which only holds the todos found until then
+    private static final byte INCOMPLETE = 3;
+
+    private TodoReport() {
+    }
+
+    /**
+     * Opens a writer streaming todos to the given report file.
+     *
+     * @param reportFile the file to write
+     * @param root the directory file paths are stored relative to
+     * @return the writer, to be closed once every todo was written
+     * @throws IllegalStateException if the report cannot be created
+     */
+    public static Writer open(File reportFile, Path root) {
+        try {
+            Files.createDirectories(reportFile.getParentFile().toPath());
+            return new Writer(reportFile, root);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write report " + reportFile.getName(), e);
+        }
+    }
+
+    /**
+     * Writes the given todos to the report file.
+     *
+     * @param reportFile the file to write
+     * @param root the directory file paths are stored relative to
+     * @param todos the todos to write, todos of the same file are expected to be adjacent
+     * @throws IllegalStateException if the report cannot be written
+     */
+    public static void write(File reportFile, Path root, List<TodoModel> todos) {
+        try (Writer writer = open(reportFile, root)) {
+            todos.forEach(writer);
+        }
+    }
+
+    /**
+     * Streams the todos of the report file, reading them as the stream is consumed. The stream has to be closed.
+     * The stream of an incomplete report ends with the last todo its scan found, {@link #isIncomplete(File)} tells
+     * whether there may have been more.
+     *
+     * @param reportFile the file to read
+     * @param root the directory file paths are resolved against
+     * @return the todos of the report, in the order they were written
+     * @throws IllegalStateException if the report cannot be read or was written by another version of the plugin
+     */
+    public static Stream<TodoModel> stream(File reportFile, Path root) {
+        Reader reader = new Reader(reportFile, root);
+        return StreamSupport.stream(reader, false).onClose(reader::close);
+    }
+
+    /**
+     * Reads all todos of the report file.
+     *
+     * @param reportFile the file to read
+     * @param root the directory file paths are resolved against
+     * @return the todos of the report, in the order they were written
+     * @throws IllegalStateException if the report cannot be read or was written by another version of the plugin
+     */
+    public static List<TodoModel> read(File reportFile, Path root) {
+        try (Stream<TodoModel> todos = stream(reportFile, root)) {
+            return todos.toList();
+        }
+    }
+
+    /**
+     * Tells whether the scan the report was written by stopped early, without reading its todos.
+     *
+     * @param reportFile the file to check
+     * @return true if the report was marked incomplete
+     * @throws IllegalStateException if the report cannot be read or was written by another version of the plugin
+     */
+    public static boolean isIncomplete(File reportFile) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(reportFile))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IllegalStateException("Report " + reportFile.getName() + " has an unsupported format");
+            }
+            return in.readByte() == INCOMPLETE;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read report " + reportFile.getName(), e);
+        }
+    }
+
+    /**
+     * Streaming report writer, accepting todos one at a time.
+     */
+    public static final class Writer implements Consumer<TodoModel>, Closeable {
+        private final File reportFile;
+        private final Path root;
+        private final FileOutputStream file;
+        private final DataOutputStream out;
+        private String currentPath;
+        private boolean complete = true;
+
+        private Writer(File reportFile, Path root) throws IOException {
+            this.reportFile = reportFile;
+            this.root = root;
+            this.file = new FileOutputStream(reportFile);
+            this.out = new DataOutputStream(new BufferedOutputStream(file));
+            out.writeInt(FORMAT_VERSION);
+            // until the report is closed, it only holds the todos found so far
+            out.writeByte(INCOMPLETE);
+        }
+
+        /**
+         * @param todo the todo to append to the report
+         * @throws IllegalStateException if the todo cannot be written
+         */
+        @Override
+        public void accept(TodoModel todo) {
+            try {
+                // the path is only written once for every run of todos of the same file
+                if (todo.getFilePath().equals(currentPath)) {
+                    out.writeByte(SAME_FILE);
+                } else {
+                    currentPath = todo.getFilePath();
+                    out.writeByte(NEW_FILE);
+                    out.writeUTF(relativize(root, currentPath));
+                }
+                out.writeUTF(todo.getAssignee());
+                out.writeLong(todo.getDueDate() == null ? NO_DUE_DATE : todo.getDueDate().toEpochDay());
+                out.writeInt(todo.getLineNumber());
+                out.writeInt(todo.getColumnNumber());
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write report " + reportFile.getName(), e);
+            }
+        }
+
+        /**
+         * Marks the report as incomplete, because the scan was stopped before every file was scanned, so that the tasks
+         * reading it can tell that it does not hold every todo.
+         */
+        public void markIncomplete() {
+            complete = false;
+        }
+
+        /**
+         * Terminates and closes the report.
+         *
+         * @throws IllegalStateException if the report cannot be written
+         */
+        @Override
+        public void close() {
+            try (out) {
+                out.writeByte(complete ? END : INCOMPLETE);
+                out.flush();
+                if (complete) {
+                    file.getChannel().write(ByteBuffer.wrap(new byte[]{END}), END_TAG_OFFSET);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write report " + reportFile.getName(), e);
+            }
+        }
+    }
+
+    private static final class Reader extends Spliterators.AbstractSpliterator<TodoModel> {
+        private final File reportFile;
+        private final Path root;
+        private final DataInputStream in;
+        private String currentPath;
+        private boolean ended;
+
+        private Reader(File reportFile, Path root) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.reportFile = reportFile;
+            this.root = root;
+            try {
+                this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(reportFile)));
+                if (in.readInt() != FORMAT_VERSION) {
+                    in.close();
+                    throw new IllegalStateException("Report " + reportFile.getName() + " has an unsupported format");
+                }
+                // the end tag of the header is met again at the end of the todos
+                in.readByte();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read report " + reportFile.getName(), e);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super TodoModel> action) {
+            if (ended) return false;
+            try {
+                byte tag = in.readByte();
+                if (tag == END || tag == INCOMPLETE) {
+                    ended = true;
+                    return false;
+                }
+                if (tag == NEW_FILE) {
+                    currentPath = root.resolve(in.readUTF()).toString();
+                }
+                String assignee = in.readUTF();
+                long epochDay = in.readLong();
+                action.accept(new TodoModel(
+                        assignee,
+                        epochDay == NO_DUE_DATE ? null : LocalDate.ofEpochDay(epochDay),
+                        currentPath,
+                        in.readInt(),
+                        in.readInt()
+                ));
+                return true;
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read report " + reportFile.getName(), e);
+            }
+        }
+
+        private void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read report " + reportFile.getName(), e);
+            }
+        }
+    }
+
+    private static String relativize(Path root, String filePath) {
+        return root.relativize(Path.of(filePath).toAbsolutePath()).toString().replace(File.separatorChar, '/');
+    }
+}
@@ -0,0 +1,176 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Work-stealing scanner that extracts todos from a set of files on a {@link ForkJoinPool}.
+ * The files are sorted by path and the range is split in halves until it fits into a small batch, so idle workers
+ * steal the per-file work of busy ones. Results are streamed to a sink in path order as soon as every file before
+ * them is done, which makes the output independent of the parallelism level and of the order the files were collected
+ * in, while only the results of files completed ahead of their turn are held in memory.
+ */
+public class TodoScanEngine {
+
+    // number of files scanned by a single fork-join task, small enough to balance, large enough to amortize forking
+    static final int FILE_BATCH_SIZE = 8;
+
+    private final int parallelism;
+    private final Predicate<File> fileFilter;
+    private final Function<File, List<TodoModel>> fileScanner;
+
+    /**
+     * @param parallelism the number of worker threads, values below 1 are treated as 1
+     * @param fileFilter the condition a file has to satisfy in order to be scanned
+     * @param fileScanner the function extracting todos from a single file, must be safe to call concurrently
+     */
+    public TodoScanEngine(
+            int parallelism,
+            Predicate<File> fileFilter,
+            Function<File, List<TodoModel>> fileScanner
+    ) {
+        this.parallelism = Math.max(1, parallelism);
+        this.fileFilter = fileFilter;
+        this.fileScanner = fileScanner;
+    }
+
+    /**
+     * Scans the given files and collects the result.
+     *
+     * @param files the files to scan, files not passing the file filter are skipped
+     * @return all todos found in the files, ordered by file path
+     */
+    public List<TodoModel> scan(Iterable<File> files) {
+        List<TodoModel> todos = new ArrayList<>();
+        scan(files, todos::add);
+        return todos;
+    }
+
+    /**
+     * Scans the given files, streaming the todos found to the given sink.
+     * The sink is called by one thread at a time, in file path order, and an exception it throws ends the scan.
+     *
+     * @param files the files to scan, files not passing the file filter are skipped
+     * @param sink the consumer of all todos found in the files
+     */
+    public void scan(Iterable<File> files, Consumer<TodoModel> sink) {
+        scanWhile(files, todo -> {
+            sink.accept(todo);
+            return true;
+        });
+    }
+
+    /**
+     * Scans the given files, streaming the todos found to the given sink for as long as it asks for more.
+     * The sink is called by one thread at a time, in file path order. Once it returns false, or throws, no other todo
+     * is handed over to it, the files not started yet are skipped and the scan returns as soon as the files in flight
+     * are done, so the todos received are always the same, whatever the parallelism.
+     *
+     * @param files the files to scan, files not passing the file filter are skipped
+     * @param sink the consumer of the todos found in the files, returning false to stop the scan
+     * @return true if every file was scanned, false if the sink stopped the scan
+     */
+    public boolean scanWhile(Iterable<File> files, Predicate<TodoModel> sink) {
+        List<File> sorted = new ArrayList<>();
+        for (File file : files) {
+            if (fileFilter.test(file)) {
+                sorted.add(file);
+            }
+        }
+        sorted.sort(Comparator.comparing(File::getPath));
+
+        OrderedEmitter emitter = new OrderedEmitter(sorted.size(), sink);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new FileRangeScan(sorted, 0, sorted.size(), emitter));
+        } catch (RuntimeException e) {
+            // exceptions thrown on another worker are rethrown as a copy wrapping the original, which is what callers expect
+            if (e.getCause() != null && e.getCause().getClass() == e.getClass()) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+        return !emitter.isStopped();
+    }
+
+    private class FileRangeScan extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<File> files;
+        private final int from;
+        private final int to;
+        private final OrderedEmitter emitter;
+
+        FileRangeScan(List<File> files, int from, int to, OrderedEmitter emitter) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.emitter = emitter;
+        }
+
+        @Override
+        protected void compute() {
+            if (emitter.isStopped()) return;
+            if (to - from <= FILE_BATCH_SIZE) {
+                for (int i = from; i < to && !emitter.isStopped(); i++) {
+                    emitter.completed(i, fileScanner.apply(files.get(i)));
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new FileRangeScan(files, from, middle, emitter), new FileRangeScan(files, middle, to, emitter));
+        }
+    }
+
+    // hands the results of every file over to the sink in file order, parking the ones completed ahead of their turn
+    private static final class OrderedEmitter {
+        private final List<List<TodoModel>> pending;
+        private final Predicate<TodoModel> sink;
+        private int next;
+        // once the sink stopped the scan or failed, nothing is handed over to it anymore, read by the workers to skip
+        // the files left
+        private volatile boolean stopped;
+
+        OrderedEmitter(int files, Predicate<TodoModel> sink) {
+            this.pending = new ArrayList<>(Collections.nCopies(files, null));
+            this.sink = sink;
+        }
+
+        boolean isStopped() {
+            return stopped;
+        }
+
+        synchronized void completed(int file, List<TodoModel> todos) {
+            if (stopped) return;
+            pending.set(file, todos);
+            try {
+                while (next < pending.size() && pending.get(next) != null) {
+                    for (TodoModel todo : pending.get(next)) {
+                        if (!sink.test(todo)) {
+                            stopped = true;
+                            pending.clear();
+                            return;
+                        }
+                    }
+                    pending.set(next++, null);
+                }
+            } catch (RuntimeException | Error e) {
+                stopped = true;
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Columnar store of todos, for the places holding many of them at once. Every todo takes a row of five ints: its due
+ * date as an epoch day, the ids of its file path and assignee in a dictionary shared by all rows, and its line and
+ * column. A repository where the same few paths and assignees occur in thousands of todos thus keeps one string of
+ * each, and no date object at all. {@link TodoModel} views of the rows are only created when asked for.
+ * <p>
+ * A table is not safe to use from concurrent threads without external synchronization.
+ */
+public final class TodoTable {
+
+    /**
+     * The epoch day of a row without a due date.
+     */
+    public static final int NO_DUE_DATE = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private int[] pathIds = new int[INITIAL_CAPACITY];
+    private int[] assigneeIds = new int[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int[] columns = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+
+    /**
+     * Appends a row.
+     *
+     * @param todo the todo to store
+     * @return the index of the new row
+     */
+    public int add(TodoModel todo) {
+        return add(todo.getAssignee(), todo.getDueDate(), todo.getFilePath(), todo.getLineNumber(), todo.getColumnNumber());
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param assignee the assignee of the todo
+     * @param dueDate the due date of the todo, null if it has none
+     * @param filePath the path of the file holding the todo
+     * @param line the line of the todo
+     * @param column the column of the todo
+     * @return the index of the new row
+     */
+    public int add(String assignee, LocalDate dueDate, String filePath, int line, int column) {
+        if (size == epochDays.length) {
+            int capacity = size + (size >> 1);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            pathIds = Arrays.copyOf(pathIds, capacity);
+            assigneeIds = Arrays.copyOf(assigneeIds, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+        }
+        epochDays[size] = dueDate == null ? NO_DUE_DATE : Math.toIntExact(dueDate.toEpochDay());
+        pathIds[size] = id(filePath);
+        assigneeIds[size] = id(assignee);
+        lines[size] = line;
+        columns[size] = column;
+        return size++;
+    }
+
+    /**
+     * Appends all given todos, in order.
+     *
+     * @param todos the todos to store
+     * @return the index of the first new row
+     */
+    public int addAll(List<TodoModel> todos) {
+        int first = size;
+        for (TodoModel todo : todos) {
+            add(todo);
+        }
+        return first;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int epochDay(int row) {
+        return epochDays[row];
+    }
+
+    public String filePath(int row) {
+        return strings.get(pathIds[row]);
+    }
+
+    public String assignee(int row) {
+        return strings.get(assigneeIds[row]);
+    }
+
+    public int line(int row) {
+        return lines[row];
+    }
+
+    public int column(int row) {
+        return columns[row];
+    }
+
+    /**
+     * Creates a view of the given row.
+     *
+     * @param row the index of the row
+     * @return a new TodoModel holding the values of the row
+     */
+    public TodoModel todo(int row) {
+        int epochDay = epochDays[row];
+        return new TodoModel(
+                strings.get(assigneeIds[row]),
+                epochDay == NO_DUE_DATE ? null : LocalDate.ofEpochDay(epochDay),
+                strings.get(pathIds[row]),
+                lines[row],
+                columns[row]
+        );
+    }
+
+    /**
+     * Returns a list of the given rows, the views of which are created as its elements are read.
+     * The list stays valid as long as the table is not modified.
+     *
+     * @param from the first row, inclusive
+     * @param to the last row, exclusive
+     * @return the list of the rows
+     */
+    public List<TodoModel> todos(int from, int to) {
+        return new AbstractList<>() {
+            @Override
+            public TodoModel get(int index) {
+                return todo(from + index);
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    /**
+     * Sorts the indices of all rows with the given order, without boxing them. The sort is stable.
+     *
+     * @param order compares two row indices, returning a negative, zero or positive number as for a comparator
+     * @return the row indices, in order
+     */
+    public int[] sortedRows(IntBinaryOperator order) {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        mergeSort(rows, new int[size], 0, size, order);
+        return rows;
+    }
+
+    /**
+     * Ranks the file paths of the table in their natural order, so that rows can be ordered by path by comparing
+     * ints rather than strings.
+     *
+     * @return the rank of the path of every row, by row index
+     */
+    public int[] pathRanks() {
+        Integer[] ids = new Integer[strings.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        Arrays.sort(ids, (left, right) -> strings.get(left).compareTo(strings.get(right)));
+        int[] rankOfId = new int[ids.length];
+        for (int rank = 0; rank < ids.length; rank++) {
+            rankOfId[ids[rank]] = rank;
+        }
+        int[] ranks = new int[size];
+        for (int row = 0; row < size; row++) {
+            ranks[row] = rankOfId[pathIds[row]];
+        }
+        return ranks;
+    }
+
+    private int id(String value) {
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            strings.add(value);
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    private static void mergeSort(int[] rows, int[] buffer, int from, int to, IntBinaryOperator order) {
+        if (to - from < 2) return;
+        int middle = (from + to) >>> 1;
+        mergeSort(rows, buffer, from, middle, order);
+        mergeSort(rows, buffer, middle, to, order);
+        if (order.applyAsInt(rows[middle - 1], rows[middle]) <= 0) return;
+
+        System.arraycopy(rows, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || left < middle && order.applyAsInt(buffer[left], buffer[right]) <= 0) {
+                rows[i] = buffer[left++];
+            } else {
+                rows[i] = buffer[right++];
+            }
+        }
+    }
+}
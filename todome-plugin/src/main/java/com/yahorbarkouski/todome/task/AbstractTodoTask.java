@@ -1,35 +1,104 @@
 package com.yahorbarkouski.todome.task;
 
-import com.yahorbarkouski.todome.extension.ToDoMeExtension;
 import com.yahorbarkouski.todome.model.TodoModel;
+import com.yahorbarkouski.todome.report.FormattedReportWriter;
+import com.yahorbarkouski.todome.report.ReportFormat;
+import com.yahorbarkouski.todome.report.ReportRule;
+import com.yahorbarkouski.todome.scan.ScanMetrics;
+import com.yahorbarkouski.todome.scan.TodoReport;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.api.tasks.Console;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.OutputFiles;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 public abstract class AbstractTodoTask extends DefaultTask {
 
     protected static final Logger logger = Logging.getLogger(AbstractTodoTask.class);
-    public static final Pattern todoPattern = Pattern.compile(
-            "(//.?TODO[^\\n]*|/\\*.*?TODO[^*]*\\*/)",
-            Pattern.DOTALL
-    );
-    protected static final List<String> JVM_EXTENSIONS = Arrays.asList(".java", ".kt", ".kts", ".groovy");
 
-    protected ToDoMeExtension extension;
+    /**
+     * The reports of the scan tasks this task reports on, the one of its own project, or the ones of every project of
+     * the build for the aggregate tasks.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract ConfigurableFileCollection getScanReports();
+
+    /**
+     * The directory reported file paths are relative to.
+     */
+    @Internal
+    public abstract DirectoryProperty getRootDirectory();
+
+    /**
+     * The plain text report of every todo the task reported, one todo per line.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getReportFile();
+
+    /**
+     * The machine-readable formats the reported todos are written in as well, none by default.
+     */
+    @Input
+    public abstract SetProperty<ReportFormat> getReportFormats();
+
+    /**
+     * The directory the reports in the {@link #getReportFormats()} are written to, named after the task.
+     */
+    @Internal
+    public abstract DirectoryProperty getReportsDirectory();
+
+    /**
+     * The number of todos logged to the console, the others are only written to the reports and summed up.
+     */
+    @Console
+    public abstract Property<Integer> getConsoleLimit();
+
+    /**
+     * Whether the time spent reporting is measured and written to the {@link #getMetricsFile()}.
+     */
+    @Internal
+    public abstract Property<Boolean> getMetrics();
+
+    /**
+     * The file the {@link ScanMetrics} of the last execution are written to, as JSON.
+     */
+    @Internal
+    public abstract RegularFileProperty getMetricsFile();
 
-    protected AbstractTodoTask() {
-        extension = getProject().getExtensions().findByType(ToDoMeExtension.class);
+    /**
+     * The report file of every selected format, such as {@code verifyTodos.sarif}, keyed by format.
+     *
+     * @return the report files
+     */
+    @OutputFiles
+    public Map<String, File> getFormattedReports() {
+        Map<String, File> reports = new TreeMap<>();
+        for (ReportFormat format : getReportFormats().get()) {
+            reports.put(format.toString(), getReportsDirectory().file(getName() + "." + format.getExtension()).get().getAsFile());
+        }
+        return reports;
     }
 
     // formats model output, according to specific task needs
@@ -38,155 +107,151 @@ public abstract class AbstractTodoTask extends DefaultTask {
     // filters model chooser, according to specific task needs
     abstract Predicate<TodoModel> filtered();
 
-    // reports filtered todos output, according to specific task needs
-    abstract void report(List<TodoModel> todos);
+    // reports filtered todos output as they are streamed, according to specific task needs
+    abstract void report(Stream<TodoModel> todos);
+
+    // describes the reported todos in the machine-readable reports, according to specific task needs
+    abstract ReportRule reportRule();
 
     /**
-     * Extracts all TodoModel objects from all files within a given directory that pass the provided filter condition.
-     *
-     * @param dir the directory to search for TodoModel objects
-     * @param filter the condition that the TodoModel objects must satisfy to be included in the list
-     * @return a list of all TodoModel objects found within the directory that satisfy the provided filter condition
+     * Streams the scanned todos passing the {@link #filtered()} condition to {@link #report(Stream)}. When the
+     * {@link #getMetrics()} are enabled, the wall and CPU time spent reading the scan reports and reporting is written
+     * to the {@link #getMetricsFile()}, also when the report fails the task.
      */
-    protected List<TodoModel> extractTodos(File dir, Predicate<TodoModel> filter) {
-        List<TodoModel> todos = new ArrayList<>();
-        File[] files = dir.listFiles();
-        if (files == null) return todos;
-
-        for (File file : files) {
-            if (file.isDirectory()) {
-                todos.addAll(extractTodos(file, filter));
-            } else if (isJvmFile(file)) {
-                todos.addAll(extractTodosFromFileByFilter(file, filter));
+    protected void reportScannedTodos() {
+        ScanMetrics metrics = getMetrics().getOrElse(false) ? new ScanMetrics(0) : ScanMetrics.NOOP;
+        long wallStart = metrics.wallTime();
+        long cpuStart = metrics.cpuTime();
+        try (Stream<TodoModel> todos = scannedTodos(filtered())) {
+            report(todos);
+        } finally {
+            metrics.record(ScanMetrics.Phase.REPORT, wallStart, cpuStart);
+            if (metrics.isEnabled()) {
+                metrics.finish();
+                File metricsFile = getMetricsFile().get().getAsFile();
+                metrics.write(metricsFile, getPath(), null);
+                logger.info("{}: {}, see {}", getPath(), metrics.summary(null), metricsFile);
             }
         }
-        return todos;
     }
 
     /**
-     * Check if the given file is a JVM file based on its extension.
+     * Streams the todos found by the scan tasks from their reports and keeps the ones that pass the provided filter.
+     * The sources themselves are scanned once per build by the scan task of each project, whatever the number of tasks
+     * reporting on its result. The reports are read as the stream is consumed, which has to be done through its
+     * terminal operations, such as forEach, rather than its iterator, and the stream has to be closed.
      *
-     * @param file The file to check.
-     * @return true if the file has a JVM extension, false otherwise.
+     * @param filter the condition that the TodoModel objects must satisfy to be included in the stream
+     * @return a stream of all scanned TodoModel objects that satisfy the provided filter condition
      */
-    protected boolean isJvmFile(File file) {
-        return JVM_EXTENSIONS.stream().anyMatch(file.getName()::endsWith);
+    protected Stream<TodoModel> scannedTodos(Predicate<TodoModel> filter) {
+        Path root = getRootDirectory().get().getAsFile().toPath();
+        return getScanReports().getFiles().stream()
+                .flatMap(report -> TodoReport.stream(report, root))
+                .filter(filter);
     }
 
     /**
-     * Extracts all todo items from a given file that match the provided filter.
+     * Writes the given todos to the report file, one {@code path:line:column assignee dueDate} line per todo.
      *
-     * @param file The file to extract todo items from.
-     * @param filter The predicate filter used to match specific todo items.
-     * @return A list of TodoModel objects that match the provided filter.
+     * @param todos the todos to write
+     * @throws IllegalStateException if the report cannot be written
      */
-    protected List<TodoModel> extractTodosFromFileByFilter(File file, Predicate<TodoModel> filter) {
-        List<TodoModel> todos = new ArrayList<>();
-
-        String fileContent = readFileContent(file);
-        Matcher matcher = todoPattern.matcher(fileContent);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(extension.getDateFormat());
-
-        while (matcher.find()) {
-            String todoComment = matcher.group();
-            String assignee = extractAssignee(todoComment);
-            LocalDate dueDate = extractDueDate(todoComment, formatter, extension.getDueDatePrefixes());
-
-            TodoModel todo = new TodoModel(
-                    assignee,
-                    dueDate,
-                    file.getPath(),
-                    calculateLineNumber(fileContent, matcher.start()),
-                    calculateColumnNumber(fileContent, matcher.start())
-            );
-
-            if (filter.test(todo)) {
-                todos.add(todo);
-            }
+    protected void writeReport(List<TodoModel> todos) {
+        try (ReportWriter writer = openReport()) {
+            todos.forEach(writer::write);
         }
-
-        return todos;
     }
 
     /**
-     * Reads the content of the specified file.
+     * Opens the report file, and the report files of the selected {@link #getReportFormats()}, for writing todos as
+     * they are reported.
      *
-     * @param file the file to read
-     * @return the content of the file as a String
-     * @throws IllegalStateException if an error occurs while reading the file
+     * @return the report writer, to be closed once every todo was written
+     * @throws IllegalStateException if a report cannot be created
      */
-    protected String readFileContent(File file) {
+    protected ReportWriter openReport() {
+        File reportFile = getReportFile().get().getAsFile();
+        ReportWriter writer = null;
         try {
-            return Files.readString(file.toPath());
+            Files.createDirectories(reportFile.getParentFile().toPath());
+            writer = new ReportWriter(reportFile, getRootDirectory().get().getAsFile().toPath());
+            Map<String, File> formattedReports = getFormattedReports();
+            for (ReportFormat format : getReportFormats().get()) {
+                File formattedReport = formattedReports.get(format.toString());
+                Files.createDirectories(formattedReport.getParentFile().toPath());
+                writer.formatted.add(format.open(Files.newBufferedWriter(formattedReport.toPath()), reportRule()));
+            }
+            return writer;
         } catch (IOException e) {
-            throw new IllegalStateException("Failed to read file " + file.getName(), e);
+            if (writer != null) writer.close();
+            throw new IllegalStateException("Failed to write report " + reportFile.getName(), e);
         }
     }
 
     /**
-     * Extracts the name of the todo assignee from the given todo comment.
-     * If the todo comment does not contain an assignee, returns "unassigned".
+     * Opens the console the reported todos are logged to, which logs the first {@link #getConsoleLimit()} of them.
      *
-     * @param todoComment the todo comment from which to extract the assignee
-     * @return the name of the assignee, or "unassigned" if no assignee was found
+     * @return the console
      */
-    protected String extractAssignee(String todoComment) {
-        Matcher assigneeMatcher = Pattern.compile("@\\w+").matcher(todoComment);
-        return assigneeMatcher.find() ? assigneeMatcher.group().substring(1) : "unassigned";
+    protected TodoConsole openConsole() {
+        return new TodoConsole(logger, getConsoleLimit().getOrElse(Integer.MAX_VALUE), this::formatted);
     }
 
     /**
-     * Extracts the due date from a todo comment based on given prefixes and a date formatter
-     *
-     * @param todoComment the string containing the todo comment
-     * @param dateFormatter the date formatter to use when parsing the date string from the comment
-     * @param dueDatePrefixes the prefixes to search for in the todo comment
-     * @return LocalDate representing the due date extracted from the comment, or null if no valid date was found
+     * Streaming writer of the plain text report and of the reports in the selected formats. Paths are relative to the
+     * root directory, so the reports stay valid when restored from the build cache into another checkout.
      */
-    protected LocalDate extractDueDate(
-            String todoComment,
-            DateTimeFormatter dateFormatter,
-            List<String> dueDatePrefixes
-    ) {
-        return dueDatePrefixes.stream()
-                .filter(todoComment::contains)
-                .findFirst()
-                .map(prefix -> {
-                    int dueToCommentStartIndex = todoComment.indexOf(prefix) + prefix.length();
-                    String dateString = todoComment.substring(
-                            dueToCommentStartIndex,
-                            Math.min(
-                                    todoComment.length(),
-                                    dueToCommentStartIndex + extension.getDateFormat().length() + 1
-                            )
-                    ).trim();
-                    try {
-                        return LocalDate.parse(dateString, dateFormatter);
-                    } catch (DateTimeParseException e) {
-                        return null;
-                    }
-                }).orElse(null);
-    }
+    protected static final class ReportWriter implements Closeable {
+        private final File reportFile;
+        private final Path root;
+        private final BufferedWriter writer;
+        private final List<FormattedReportWriter> formatted = new ArrayList<>();
 
-    /**
-     * Calculates the line number of the specified character position in a given string.
-     * @param content the string to calculate the line number from
-     * @param pos the character position in the string to calculate the line number for
-     * @return the line number at the specified character position
-     */
-    protected int calculateLineNumber(String content, int pos) {
-        return content.substring(0, pos).split("\n").length;
-    }
+        private ReportWriter(File reportFile, Path root) throws IOException {
+            this.reportFile = reportFile;
+            this.root = root;
+            this.writer = Files.newBufferedWriter(reportFile.toPath());
+        }
 
-    /**
-     * Calculates the column number based on the content string and the current position.
-     *
-     * @param content the string content to calculate the column number from
-     * @param pos the current position to calculate the column number from
-     * @return the column number
-     */
-    protected int calculateColumnNumber(String content, int pos) {
-        String[] lines = content.substring(0, pos).split("\n");
-        return lines[lines.length - 1].length() + 1;
+        /**
+         * @param todo the todo to append to the reports
+         * @throws IllegalStateException if the todo cannot be written
+         */
+        public void write(TodoModel todo) {
+            try {
+                String path = root.relativize(Path.of(todo.getFilePath()).toAbsolutePath()).toString();
+                writer.write(path);
+                writer.write(":" + todo.getLineNumber() + ":" + todo.getColumnNumber());
+                writer.write(" " + todo.getAssignee());
+                writer.write(" " + (todo.getDueDate() == null ? "none" : todo.getDueDate().toString()));
+                writer.newLine();
+                for (FormattedReportWriter report : formatted) {
+                    report.write(path.replace(File.separatorChar, '/'), todo);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write report " + reportFile.getName(), e);
+            }
+        }
+
+        @Override
+        public void close() {
+            IOException failure = null;
+            try {
+                writer.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+            for (FormattedReportWriter report : formatted) {
+                try {
+                    report.close();
+                } catch (IOException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Failed to write report " + reportFile.getName(), failure);
+            }
+        }
     }
 }
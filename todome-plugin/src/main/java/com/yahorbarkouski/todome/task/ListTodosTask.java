@@ -1,69 +1,112 @@
 package com.yahorbarkouski.todome.task;
 
 import com.yahorbarkouski.todome.model.TodoModel;
+import com.yahorbarkouski.todome.report.ReportRule;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.options.Option;
 
-import java.io.File;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.TreeMap;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
-public class ListTodosTask extends AbstractTodoTask {
+@CacheableTask
+public abstract class ListTodosTask extends AbstractTodoTask {
 
-    private final String assigneeFilter = getProject().hasProperty("assignee")
-            ? (String) getProject().property("assignee")
-            : null;
-    private final boolean dueDateAscending = getProject().hasProperty("sort") &&
-            Objects.equals(getProject().property("sort"), "asc");
+    /**
+     * The assignee whose todos are listed, all todos are listed when not set.
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getAssigneeFilter();
+
+    /**
+     * Whether the todos due first are listed first, rather than the ones due last.
+     */
+    @Input
+    public abstract Property<Boolean> getDueDateAscending();
+
+    /**
+     * Whether only the todos with a due date in the past are listed, failing the task if there are any.
+     */
+    @Input
+    public abstract Property<Boolean> getOverdue();
+
+    /**
+     * The date overdue todos are checked against. Only set when listing overdue todos,
+     * so that the task output is not invalidated every day otherwise.
+     */
+    @Input
+    @Optional
+    public abstract Property<LocalDate> getToday();
+
+    /**
+     * The number of todos to list, the ones due first, or last when sorted in descending order.
+     * Every todo is listed when not set.
+     */
+    @Input
+    @Optional
+    public abstract Property<Integer> getLimit();
 
-    private final boolean overdue = getProject().hasProperty("overdue") &&
-            Objects.equals(getProject().property("overdue"), "true");
+    /**
+     * Sets the {@link #getLimit()} from the command line, such as {@code listTodos --top 20}.
+     *
+     * @param top the number of todos to list
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    @Option(option = "top", description = "Lists the given number of todos only, the ones due first in sort order.")
+    public void setTop(String top) {
+        try {
+            getLimit().set(Integer.parseInt(top.strip()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--top expects a number of todos, but got '" + top + "'", e);
+        }
+    }
 
     /**
-     * Extracts a list of todos from the project's root directory and filters them according to a defined predicate.
-     * Then reports the valid todos by putting them in a HashMap based on their due date and generating a report.
+     * Streams the scanned todos and filters them according to a defined predicate.
+     * Then reports the valid todos by keeping the first of them by due date and generating a report.
      */
     @TaskAction
     public void listTodos() {
-        File srcDir = getProject().getRootDir();
-        report(extractTodos(srcDir, filtered()));
+        reportScannedTodos();
     }
 
     /**
      * Reports any filtered todos.
      * If no valid todos are present, nothing happens.
      * The todos are sorted by due date in ascending order,
-     * unless {@code dueDateAscending} is set to false,
+     * unless {@link #getDueDateAscending()} is set to false,
      * in which case they are sorted in descending order.
-     * Each TodoModel is logged as a lifecycle event using logger.
+     * Todos sharing a due date are all listed, ordered by file path, line and column.
+     * Only the first {@link #getLimit()} todos of that order are kept while the stream is consumed,
+     * so the memory used does not depend on the number of todos found.
+     * Each TodoModel is logged as a lifecycle event using logger, up to the {@link #getConsoleLimit()}.
      *
      * @see TodoModel
      */
     @Override
-    public void report(List<TodoModel> todos) {
-        Map<String, TodoModel> sortedValidTodos = new TreeMap<>();
-        todos.forEach(todo -> sortedValidTodos.put(Objects.requireNonNull(todo.getDueDate()).toString(), todo));
-
-        if (todos.isEmpty()) return;
-
-        List<TodoModel> sortedTodos = new ArrayList<>(sortedValidTodos.values());
-
-        if (!dueDateAscending) {
-            Collections.reverse(sortedTodos);
-        }
+    public void report(Stream<TodoModel> todos) {
+        boolean overdue = getOverdue().get();
+        TopTodos topTodos = new TopTodos(getDueDateAscending().get(), getLimit().getOrElse(Integer.MAX_VALUE));
 
         if (overdue) {
-            sortedTodos.removeIf(todo -> Objects.requireNonNull(todo.getDueDate()).isAfter(LocalDate.now()));
+            LocalDate today = getToday().get();
+            todos = todos.filter(todo -> !Objects.requireNonNull(todo.getDueDate()).isAfter(today));
         }
+        todos.forEach(topTodos);
 
-        for (TodoModel todo : sortedTodos) {
-            logger.lifecycle(formatted(todo));
-        }
+        List<TodoModel> sortedTodos = topTodos.sorted();
+        writeReport(sortedTodos);
+
+        TodoConsole console = openConsole();
+        sortedTodos.forEach(console::log);
+        console.summarize(getReportFile().get().getAsFile());
 
         if (overdue && !sortedTodos.isEmpty()) {
             throw new IllegalStateException("Found TODOs with due dates in the past. TIME TO SOLVE IT!");
@@ -93,6 +136,17 @@ public class ListTodosTask extends AbstractTodoTask {
     }
 
 
+    @Override
+    public ReportRule reportRule() {
+        boolean overdue = getOverdue().get();
+        return new ReportRule(
+                overdue ? "overdue-todo" : "todo-due-date",
+                overdue ? "TODO with a due date in the past" : "TODO with a due date",
+                overdue ? "error" : "note",
+                todo -> "TODO of " + todo.getAssignee() + " due on " + todo.getDueDate() + "."
+        );
+    }
+
     /**
      * Returns a predicate that filters TodoModel objects based on due date and assignee.
      * Only TodoModel objects with a non-null due date and the same assignee as the filter
@@ -102,7 +156,8 @@ public class ListTodosTask extends AbstractTodoTask {
      */
     @Override
     public Predicate<TodoModel> filtered() {
+        String assigneeFilter = getAssigneeFilter().getOrNull();
         return todo -> todo.getDueDate() != null &&
-                (this.assigneeFilter == null || todo.getAssignee().equals(this.assigneeFilter));
+                (assigneeFilter == null || todo.getAssignee().equals(assigneeFilter));
     }
 }
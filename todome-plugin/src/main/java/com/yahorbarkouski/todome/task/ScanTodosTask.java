@@ -0,0 +1,559 @@
+package com.yahorbarkouski.todome.task;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import com.yahorbarkouski.todome.scan.CommentSyntax;
+import com.yahorbarkouski.todome.scan.CommentSyntaxLexer;
+import com.yahorbarkouski.todome.scan.CommentSyntaxTable;
+import com.yahorbarkouski.todome.scan.FilePrefetcher;
+import com.yahorbarkouski.todome.scan.GitChanges;
+import com.yahorbarkouski.todome.scan.LiveTodoIndex;
+import com.yahorbarkouski.todome.scan.LiveTodoIndexService;
+import com.yahorbarkouski.todome.scan.ScanMetrics;
+import com.yahorbarkouski.todome.scan.ScanStatistics;
+import com.yahorbarkouski.todome.scan.SourceArchive;
+import com.yahorbarkouski.todome.scan.SourceReader;
+import com.yahorbarkouski.todome.scan.SourceText;
+import com.yahorbarkouski.todome.scan.TodoExtractionPlan;
+import com.yahorbarkouski.todome.scan.TodoIndexCache;
+import com.yahorbarkouski.todome.scan.TodoPrefilter;
+import com.yahorbarkouski.todome.scan.TodoReport;
+import com.yahorbarkouski.todome.scan.TodoScanEngine;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Scans the sources for todos once per build and writes all of them, unfiltered, to a binary {@link TodoReport}.
+ * The tasks reporting on todos consume that report and only apply their own filter, so running several of them in a
+ * build does not read the sources more than once.
+ */
+@CacheableTask
+public abstract class ScanTodosTask extends DefaultTask {
+
+    private static final Logger logger = Logging.getLogger(ScanTodosTask.class);
+    private static final CommentSyntaxLexer DEFAULT_LEXER = new CommentSyntaxLexer(CommentSyntax.jvm());
+
+    /**
+     * The source files scanned for todos, by default every JVM file of the configured source roots.
+     */
+    @InputFiles
+    @Incremental
+    @IgnoreEmptyDirectories
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getSources();
+
+    @Input
+    public abstract ListProperty<String> getDueDatePrefixes();
+
+    @Input
+    public abstract Property<String> getDateFormat();
+
+    @Input
+    public abstract Property<String> getMentionSymbol();
+
+    @Input
+    public abstract Property<String> getCharset();
+
+    /**
+     * The comment syntaxes of the languages scanned, the files of other extensions are skipped.
+     */
+    @Input
+    public abstract ListProperty<CommentSyntax> getCommentSyntaxes();
+
+    /**
+     * Whether the archives among the sources, such as {@code -sources.jar} files, are scanned for the JVM files they
+     * contain. Archives are skipped when not set.
+     */
+    @Input
+    @Optional
+    public abstract Property<Boolean> getScanArchives();
+
+    @Internal
+    public abstract Property<Integer> getParallelism();
+
+    /**
+     * The number of threads reading files ahead of the workers parsing them, so that reading and parsing overlap.
+     * Every file is read by the worker parsing it when 0.
+     */
+    @Internal
+    public abstract Property<Integer> getReaderThreads();
+
+    /**
+     * The number of todos without a due date after which the scan stops, cancelling the files still in flight.
+     * The report then only holds the todos found until then and is marked as incomplete. Every file is scanned when
+     * not set.
+     */
+    @Input
+    @Optional
+    public abstract Property<Integer> getMaxViolations();
+
+    /**
+     * The lines changed since the base revision the scan is restricted to, only todos written on them are reported.
+     * Every todo of the sources is reported when not set.
+     */
+    @Input
+    @Optional
+    public abstract Property<GitChanges> getChangedLines();
+
+    /**
+     * Whether the sources are narrowed to the files changed since a base revision, the persistent index then keeps
+     * the entries of the other files instead of dropping them.
+     */
+    @Internal
+    public abstract Property<Boolean> getChangedFilesOnly();
+
+    /**
+     * The directory reported file paths are relative to.
+     */
+    @Internal
+    public abstract DirectoryProperty getRootDirectory();
+
+    /**
+     * The binary report of every todo found in the sources, read by the tasks reporting on them.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getScanReport();
+
+    /**
+     * The file the per-file todo index of this task is persisted to.
+     */
+    @LocalState
+    public abstract RegularFileProperty getIndexFile();
+
+    /**
+     * Whether the todos of every file are kept in a {@link LiveTodoIndex} held by the daemon, so that later builds
+     * only parse the files changed since the previous one.
+     */
+    @Internal
+    public abstract Property<Boolean> getLiveIndex();
+
+    @Internal
+    public abstract Property<LiveTodoIndexService> getLiveIndexService();
+
+    /**
+     * Whether the time spent in every phase of the scan is measured and written to the {@link #getMetricsFile()}.
+     */
+    @Internal
+    public abstract Property<Boolean> getMetrics();
+
+    /**
+     * The file the {@link ScanMetrics} of the last execution are written to, as JSON.
+     */
+    @Internal
+    public abstract RegularFileProperty getMetricsFile();
+
+    private final ScanStatistics statistics = new ScanStatistics();
+    private ScanMetrics metrics = ScanMetrics.NOOP;
+    // the prefetcher of the scan in progress, if any, set before the workers start
+    private FilePrefetcher prefetcher;
+
+    /**
+     * Scans the task sources and writes every todo found to the scan report, or, when {@link #getMaxViolations()} is
+     * set, the todos found until that many of them have no due date. With the {@link #getLiveIndex()} enabled, only
+     * the files changed since the previous build are scanned, as long as Gradle reports them. With the
+     * {@link #getMetrics()} enabled, the time spent in every phase is written to the {@link #getMetricsFile()}.
+     *
+     * @param inputChanges the sources changed since the previous execution of the task
+     */
+    @TaskAction
+    public void scanTodos(InputChanges inputChanges) {
+        metrics = getMetrics().getOrElse(false) ? new ScanMetrics(ScanMetrics.DEFAULT_SLOWEST_FILES) : ScanMetrics.NOOP;
+        try {
+            scan(inputChanges);
+        } finally {
+            writeMetrics();
+        }
+    }
+
+    private void scan(InputChanges inputChanges) {
+        File reportFile = getScanReport().get().getAsFile();
+        String settingsFingerprint = parserSettingsFingerprint();
+        LiveTodoIndex liveIndex = getLiveIndex().getOrElse(false) ? getLiveIndexService().get().index(reportFile) : null;
+        // checked before the report is opened, which overwrites the report the index was committed with
+        boolean incremental = liveIndex != null && inputChanges.isIncremental() && liveIndex.isCurrent(reportFile, settingsFingerprint);
+        if (liveIndex != null) {
+            if (incremental) {
+                liveIndex.invalidate();
+            } else {
+                liveIndex.clear();
+            }
+        }
+
+        // built before the workers start, which share it with the reader threads of the prefetcher
+        ScanParsers parsers = parsers();
+        int maxViolations = getMaxViolations().getOrElse(Integer.MAX_VALUE);
+        int[] violations = new int[1];
+        boolean complete;
+        try (TodoReport.Writer writer = TodoReport.open(reportFile, getRootDirectory().get().getAsFile().toPath())) {
+            Predicate<TodoModel> sink = todo -> {
+                long wallStart = metrics.wallTime();
+                long cpuStart = metrics.cpuTime();
+                writer.accept(todo);
+                metrics.record(ScanMetrics.Phase.REPORT, wallStart, cpuStart);
+                return todo.getDueDate() != null || ++violations[0] < maxViolations;
+            };
+            complete = incremental
+                    ? extractChangedTodosWhile(parsers, liveIndex, inputChanges, sink)
+                    : extractTodosWhile(parsers, sink, liveIndex);
+            if (!complete) {
+                writer.markIncomplete();
+                logger.info("{}: stopped scanning after {} TODOs without a due date", getPath(), maxViolations);
+            }
+        }
+        // a full scan stopped early only indexed part of the sources, while the changed files are all indexed upfront
+        if (liveIndex != null && (incremental || complete)) {
+            liveIndex.commit(reportFile, settingsFingerprint);
+        }
+    }
+
+    /**
+     * Extracts the TodoModel objects from the task sources, streaming them to the given sink for as long as it asks for
+     * more. The files are scanned in parallel, using {@link #getParallelism()} worker threads, while the sink receives
+     * the todos in a deterministic order, one at a time. Files that did not change since the previous scan are served
+     * from the persistent {@link TodoIndexCache}, only changed or new files are parsed again. Once the sink returns
+     * false, the files not scanned yet are skipped, and the index is left as it was, since it only learned about part
+     * of the sources. The scan counters are logged at info level once the scan is done.
+     *
+     * @param parsers the parsers of the scan
+     * @param sink the consumer of the TodoModel objects, returning false to stop the scan
+     * @param liveIndex the live index to update with the todos of every scanned file, or null
+     * @return true if every file was scanned, false if the sink stopped the scan
+     */
+    private boolean extractTodosWhile(ScanParsers parsers, Predicate<TodoModel> sink, @Nullable LiveTodoIndex liveIndex) {
+        TodoIndexCache index = TodoIndexCache.load(getIndexFile().get().getAsFile(), parserSettingsFingerprint());
+        GitChanges changedLines = getChangedLines().getOrNull();
+        Path root = getRootDirectory().get().getAsFile().toPath();
+        Function<File, List<TodoModel>> fileScanner = file -> {
+            long wallStart = metrics.wallTime();
+            long size = file.length();
+            statistics.fileScanned(size);
+            String relativePath = relativePath(root, file.getPath());
+            List<TodoModel> todos = index.todos(file, (indexed, hash) -> extractTodosFromFile(parsers, indexed, hash));
+            if (liveIndex != null) {
+                liveIndex.update(file, todos);
+            }
+            metrics.fileScanned(relativePath, size, wallStart);
+            return changedLines == null ? todos : todos.stream()
+                    .filter(todo -> changedLines.contains(relativePath, todo.getLineNumber()))
+                    .toList();
+        };
+        long walkWallStart = metrics.wallTime();
+        long walkCpuStart = metrics.cpuTime();
+        Set<File> files = getSources().getAsFileTree().getFiles();
+        metrics.record(ScanMetrics.Phase.WALK, walkWallStart, walkCpuStart);
+        boolean complete = scanWhile(parsers, files, file -> !SourceArchive.isArchive(file) && !index.isUnchanged(file), fileScanner, sink);
+        if (complete) {
+            if (getChangedFilesOnly().getOrElse(false)) {
+                index.retainUnvisited();
+            }
+            index.save();
+        }
+        logger.info("{}: {}", getPath(), statistics);
+        return complete;
+    }
+
+    /**
+     * Brings the live index up to date with the sources changed since the previous execution, parsing the added and
+     * modified files in parallel, then streams the todos of every indexed file to the given sink, in the order
+     * {@link #extractTodosWhile(ScanParsers, Predicate, LiveTodoIndex)} does, for as long as it asks for more. Neither
+     * the sources nor the persistent index are read for files that did not change.
+     *
+     * @param parsers the parsers of the scan
+     * @param liveIndex the live index, current for the previous execution
+     * @param inputChanges the sources changed since the previous execution
+     * @param sink the consumer of the TodoModel objects, returning false to stop
+     * @return true if every todo was handed over, false if the sink stopped
+     */
+    private boolean extractChangedTodosWhile(
+            ScanParsers parsers,
+            LiveTodoIndex liveIndex,
+            InputChanges inputChanges,
+            Predicate<TodoModel> sink
+    ) {
+        List<File> changedFiles = new ArrayList<>();
+        for (FileChange change : inputChanges.getFileChanges(getSources())) {
+            if (change.getFileType() == FileType.DIRECTORY) continue;
+            if (change.getChangeType() == ChangeType.REMOVED || !isScanned(parsers, change.getFile())) {
+                liveIndex.remove(change.getFile());
+            } else {
+                changedFiles.add(change.getFile());
+            }
+        }
+        Path root = getRootDirectory().get().getAsFile().toPath();
+        scanWhile(parsers, changedFiles, file -> !SourceArchive.isArchive(file), file -> {
+            long wallStart = metrics.wallTime();
+            long size = file.length();
+            statistics.fileScanned(size);
+            liveIndex.update(file, extractTodosFromFile(parsers, file, null));
+            metrics.fileScanned(relativePath(root, file.getPath()), size, wallStart);
+            return List.of();
+        }, todo -> true);
+        logger.info("{}: updated {} changed files in the live TODO index of {} files, {}", getPath(), changedFiles.size(), liveIndex.size(), statistics);
+
+        GitChanges changedLines = getChangedLines().getOrNull();
+        return liveIndex.forEachWhile(todo -> {
+            if (changedLines != null && !changedLines.contains(relativePath(root, todo.getFilePath()), todo.getLineNumber())) {
+                return true;
+            }
+            return sink.test(todo);
+        });
+    }
+
+    /**
+     * Runs the {@link TodoScanEngine} over the given files. With {@link #getReaderThreads()} set, a
+     * {@link FilePrefetcher} reads the files ahead of the workers parsing them, skipping the ones whose content is
+     * not going to be read, such as archives, which are read entry by entry.
+     */
+    private boolean scanWhile(
+            ScanParsers parsers,
+            Collection<File> files,
+            Predicate<File> needsContent,
+            Function<File, List<TodoModel>> fileScanner,
+            Predicate<TodoModel> sink
+    ) {
+        int readerThreads = getReaderThreads().getOrElse(0);
+        if (readerThreads <= 0) {
+            return new TodoScanEngine(getParallelism().get(), file -> isScanned(parsers, file), fileScanner).scanWhile(files, sink);
+        }
+        List<File> scannedFiles = files.stream().filter(file -> isScanned(parsers, file)).toList();
+        try (FilePrefetcher filePrefetcher = new FilePrefetcher(scannedFiles, readerThreads, needsContent)) {
+            prefetcher = filePrefetcher;
+            return new TodoScanEngine(getParallelism().get(), file -> isScanned(parsers, file), filePrefetcher.wrap(fileScanner))
+                    .scanWhile(files, sink);
+        } finally {
+            prefetcher = null;
+        }
+    }
+
+    private void writeMetrics() {
+        if (!metrics.isEnabled()) return;
+        metrics.finish();
+        File metricsFile = getMetricsFile().get().getAsFile();
+        metrics.write(metricsFile, getPath(), statistics);
+        logger.info("{}: {}, see {}", getPath(), metrics.summary(statistics), metricsFile);
+    }
+
+    /**
+     * The counters of the last scan of this task: scanned files and bytes, files served from the index,
+     * files rejected by the {@link TodoPrefilter} and files that had to be lexed.
+     */
+    @Internal
+    public ScanStatistics getStatistics() {
+        return statistics;
+    }
+
+    private static String relativePath(Path root, String path) {
+        return root.relativize(Path.of(path).toAbsolutePath()).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Builds a fingerprint of every setting that changes what gets parsed out of a file,
+     * so that the persistent index is invalidated whenever one of them changes.
+     *
+     * @return the parser settings fingerprint
+     */
+    protected String parserSettingsFingerprint() {
+        return String.join("\u0000", getDueDatePrefixes().get()) + "\u0001" +
+                getDateFormat().get() + "\u0001" +
+                getMentionSymbol().get() + "\u0001" +
+                getCharset().get() + "\u0001" +
+                getCommentSyntaxes().get();
+    }
+
+    /**
+     * Check if the given file is scanned for todos: a source file, whose extension one of the
+     * {@link #getCommentSyntaxes()} handles, or, with {@link #getScanArchives()} enabled, an archive.
+     *
+     * @param parsers The parsers of the scan.
+     * @param file The file to check.
+     * @return true if the file is scanned, false otherwise.
+     */
+    private boolean isScanned(ScanParsers parsers, File file) {
+        return parsers.commentSyntaxTable.isSource(file.getName())
+                || getScanArchives().getOrElse(false) && SourceArchive.isArchive(file);
+    }
+
+    /**
+     * Extracts all todo items from a given file, handing the bytes of a plain file over to the index hash, if any,
+     * while they are read, and an archive as a whole before its entries are.
+     * Files are first checked by the {@link TodoPrefilter}, which rejects files without any {@code TODO} bytes before
+     * they are lexed. Other files are lexed once by the {@link CommentSyntaxLexer} of their extension, which reports
+     * the todo comments with their position, and the assignee and due date are parsed in place by the
+     * {@link TodoExtractionPlan}. Archives are read by the {@link SourceArchive}, their source entries are scanned as
+     * files are, in entry name order.
+     *
+     * @param parsers The parsers of the scan.
+     * @param file The file to extract todo items from.
+     * @param hash The content hash of the file for the index, or null.
+     * @return A list of all TodoModel objects of the file.
+     */
+    List<TodoModel> extractTodosFromFile(ScanParsers parsers, File file, @Nullable TodoIndexCache.ContentHash hash) {
+        List<TodoModel> todos = new ArrayList<>();
+        if (SourceArchive.isArchive(file)) {
+            // hashed as a whole before its entries are inflated, so that an archive touched without being changed is
+            // served from the index
+            if (hash != null) {
+                hash.update(file);
+            }
+            // the read of an entry is timed from the end of the previous one, as entries are inflated as they are handed over
+            long[] readStart = {metrics.wallTime(), metrics.cpuTime()};
+            // the archive counts as a single file, parsed as soon as one of its entries is
+            boolean[] parsed = {false};
+            CommentSyntaxTable syntaxes = parsers.commentSyntaxTable;
+            SourceArchive.forEachEntry(
+                    file,
+                    syntaxes::isSource,
+                    (path, content) -> {
+                        metrics.record(ScanMetrics.Phase.READ, readStart[0], readStart[1]);
+                        parsed[0] |= extractTodosFromContent(parsers, parsers.sourceReader.text(content), path, syntaxes.lexer(path), todos);
+                        readStart[0] = metrics.wallTime();
+                        readStart[1] = metrics.cpuTime();
+                    }
+            );
+            countFile(parsed[0]);
+            return todos;
+        }
+
+        long readWallStart = metrics.wallTime();
+        long readCpuStart = metrics.cpuTime();
+        ByteBuffer bytes = readFileBytes(parsers, file);
+        if (hash != null) {
+            hash.update(bytes);
+        }
+        CharSequence fileContent = parsers.sourceReader.text(bytes);
+        metrics.record(ScanMetrics.Phase.READ, readWallStart, readCpuStart);
+
+        countFile(extractTodosFromContent(parsers, fileContent, file.getPath(), parsers.commentSyntaxTable.lexer(file.getName()), todos));
+        return todos;
+    }
+
+    private void countFile(boolean parsed) {
+        if (parsed) {
+            statistics.fileParsed();
+        } else {
+            statistics.fileRejected();
+        }
+    }
+
+    // returns whether the content was lexed, rather than rejected by the prefilter
+    private boolean extractTodosFromContent(
+            ScanParsers parsers,
+            CharSequence fileContent,
+            String filePath,
+            @Nullable CommentSyntaxLexer lexer,
+            List<TodoModel> todos
+    ) {
+        long lexWallStart = metrics.wallTime();
+        long lexCpuStart = metrics.cpuTime();
+        if (!TodoPrefilter.mayContainTodo(fileContent)) {
+            metrics.record(ScanMetrics.Phase.LEX, lexWallStart, lexCpuStart);
+            return false;
+        }
+        // the wall and CPU time spent parsing the todos, which is not counted as lexing
+        long[] parseNanos = new long[2];
+
+        TodoExtractionPlan plan = parsers.extractionPlan;
+        // plans matching non ASCII settings cannot run over raw bytes, the comments are decoded for them
+        boolean decodeComments = !plan.isAsciiOnly() && fileContent instanceof SourceText;
+
+        // files given explicitly, whatever their extension, are read as JVM sources, as they always were
+        (lexer != null ? lexer : DEFAULT_LEXER).scan(fileContent, (textStart, textEnd, line, column) -> {
+            CharSequence text = decodeComments ? fileContent.subSequence(textStart, textEnd) : fileContent;
+            int start = decodeComments ? 0 : textStart;
+            int end = decodeComments ? text.length() : textEnd;
+
+            long parseWallStart = metrics.wallTime();
+            long parseCpuStart = metrics.cpuTime();
+            String assignee = plan.assignee(text, start, end);
+            LocalDate dueDate = plan.dueDate(text, start, end);
+            parseNanos[0] += metrics.wallTime() - parseWallStart;
+            parseNanos[1] += metrics.cpuTime() - parseCpuStart;
+
+            todos.add(new TodoModel(assignee, dueDate, filePath, line, column));
+        });
+        metrics.add(ScanMetrics.Phase.PARSE, parseNanos[0], parseNanos[1]);
+        metrics.add(
+                ScanMetrics.Phase.LEX,
+                metrics.wallTime() - lexWallStart - parseNanos[0],
+                metrics.cpuTime() - lexCpuStart - parseNanos[1]
+        );
+        return true;
+    }
+
+    /**
+     * Reads the bytes of the specified file, or takes them from the {@link FilePrefetcher} of the scan in progress if
+     * it was read ahead. Large files are memory mapped, and the {@link SourceReader} exposes files in an ASCII
+     * compatible charset as a view over their bytes, only the todo comments are decoded when their text is requested.
+     * The returned content is only valid until the next file is read on the same thread.
+     *
+     * @param parsers the parsers of the scan
+     * @param file the file to read
+     * @return the content of the file
+     * @throws IllegalStateException if an error occurs while reading the file
+     */
+    private ByteBuffer readFileBytes(ScanParsers parsers, File file) {
+        ByteBuffer prefetched = prefetcher == null ? null : prefetcher.take(file);
+        return prefetched != null ? prefetched : parsers.sourceReader.readBytes(file);
+    }
+
+    /**
+     * Compiles the parsers of a scan from the charset, comment syntaxes, mention symbol, due date prefixes and date
+     * format of this task.
+     *
+     * @return the parsers, shared by every file of the scan
+     */
+    ScanParsers parsers() {
+        return new ScanParsers(
+                new SourceReader(Charset.forName(getCharset().get())),
+                new TodoExtractionPlan(getMentionSymbol().get(), getDueDatePrefixes().get(), getDateFormat().get()),
+                new CommentSyntaxTable(getCommentSyntaxes().get())
+        );
+    }
+
+    /**
+     * Everything the files of a scan are read and parsed with, built once before the workers start and only read
+     * afterwards, by the workers and the reader threads of the {@link FilePrefetcher} alike.
+     */
+    static final class ScanParsers {
+        final SourceReader sourceReader;
+        final TodoExtractionPlan extractionPlan;
+        final CommentSyntaxTable commentSyntaxTable;
+
+        ScanParsers(SourceReader sourceReader, TodoExtractionPlan extractionPlan, CommentSyntaxTable commentSyntaxTable) {
+            this.sourceReader = sourceReader;
+            this.extractionPlan = extractionPlan;
+            this.commentSyntaxTable = commentSyntaxTable;
+        }
+    }
+}
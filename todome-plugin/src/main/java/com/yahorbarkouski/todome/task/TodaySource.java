@@ -0,0 +1,27 @@
+package com.yahorbarkouski.todome.task;
+
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDate;
+
+/**
+ * The current date, for the tasks checking due dates against it. Being a value source, it is obtained again on every
+ * build, so a configuration served from the configuration cache never holds the date of the build that stored it.
+ */
+public abstract class TodaySource implements ValueSource<LocalDate, TodaySource.Parameters> {
+
+    public interface Parameters extends ValueSourceParameters {
+        /**
+         * Whether the date is needed at all, no date is obtained when not, so that it is not an input of the build.
+         */
+        Property<Boolean> getEnabled();
+    }
+
+    @Override
+    public @Nullable LocalDate obtain() {
+        return getParameters().getEnabled().getOrElse(false) ? LocalDate.now() : null;
+    }
+}
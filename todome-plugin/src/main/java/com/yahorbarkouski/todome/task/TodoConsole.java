@@ -0,0 +1,47 @@
+package com.yahorbarkouski.todome.task;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.gradle.api.logging.Logger;
+
+import java.io.File;
+import java.util.function.Function;
+
+/**
+ * Logs reported todos at the lifecycle level up to a limit, so that a task reporting thousands of todos does not
+ * spend its time logging them. The ones beyond the limit are only counted, and summed up once the task is done.
+ */
+public final class TodoConsole {
+
+    private final Logger logger;
+    private final int limit;
+    private final Function<TodoModel, String> formatted;
+    private int reported;
+
+    TodoConsole(Logger logger, int limit, Function<TodoModel, String> formatted) {
+        this.logger = logger;
+        this.limit = limit;
+        this.formatted = formatted;
+    }
+
+    /**
+     * Logs the given todo, unless the limit was reached.
+     *
+     * @param todo the reported todo
+     */
+    public void log(TodoModel todo) {
+        if (reported++ < limit) {
+            logger.lifecycle(formatted.apply(todo));
+        }
+    }
+
+    /**
+     * Logs how many reported todos were not logged, if any.
+     *
+     * @param reportFile the report holding all of them
+     */
+    public void summarize(File reportFile) {
+        if (reported > limit) {
+            logger.lifecycle("... and {} more TODOs, {} in total, see {}", reported - limit, reported, reportFile);
+        }
+    }
+}
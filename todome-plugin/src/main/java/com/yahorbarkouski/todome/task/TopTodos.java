@@ -0,0 +1,123 @@
+package com.yahorbarkouski.todome.task;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import com.yahorbarkouski.todome.scan.TodoTable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the first todos of a stream by due date, then file path, line and column, holding at most the requested
+ * number of them. The due date of every todo is encoded once as an epoch day, so ranking two todos compares primitive
+ * keys first and only looks at their paths when they share a date.
+ * <p>
+ * When unlimited, the todos are collected into a {@link TodoTable} and its rows are sorted once when {@link #sorted()}
+ * is called, comparing ints only, since the paths are ranked beforehand. When limited, the kept todos live in a heap
+ * with the last of them on top, so every further todo costs a comparison with it and, if it ranks before, a
+ * logarithmic replacement. Todos ranking equal keep the order they arrived in.
+ */
+final class TopTodos implements Consumer<TodoModel> {
+
+    // the heap of a limited instance grows as needed, so that a large limit does not allocate it upfront
+    private static final int INITIAL_HEAP_CAPACITY = 1024;
+
+    private final Comparator<Ranked> order;
+    private final boolean dueDateAscending;
+    private final int limit;
+    private final TodoTable all;
+    private final PriorityQueue<Ranked> heap;
+    private long arrivals;
+
+    /**
+     * @param dueDateAscending whether the todos due first rank first, rather than the ones due last
+     * @param limit the maximum number of todos to keep, {@link Integer#MAX_VALUE} to keep all of them
+     */
+    TopTodos(boolean dueDateAscending, int limit) {
+        Comparator<Ranked> byDueDate = Comparator.comparingInt(ranked -> ranked.epochDay);
+        this.order = (dueDateAscending ? byDueDate : byDueDate.reversed())
+                .thenComparing(ranked -> ranked.todo.getFilePath())
+                .thenComparingInt(ranked -> ranked.todo.getLineNumber())
+                .thenComparingInt(ranked -> ranked.todo.getColumnNumber())
+                .thenComparingLong(ranked -> ranked.arrival);
+        this.dueDateAscending = dueDateAscending;
+        this.limit = limit;
+        this.all = limit == Integer.MAX_VALUE ? new TodoTable() : null;
+        this.heap = all == null ? new PriorityQueue<>(Math.max(1, Math.min(limit, INITIAL_HEAP_CAPACITY)), order.reversed()) : null;
+    }
+
+    /**
+     * @param todo a todo with a due date
+     */
+    @Override
+    public void accept(TodoModel todo) {
+        if (limit <= 0) return;
+
+        if (all != null) {
+            all.add(todo);
+            return;
+        }
+
+        Ranked ranked = new Ranked((int) todo.getDueDate().toEpochDay(), todo, arrivals++);
+        if (heap.size() < limit) {
+            heap.add(ranked);
+        } else if (order.compare(ranked, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(ranked);
+        }
+    }
+
+    /**
+     * @return the kept todos, in order, as views created on demand when unlimited
+     */
+    List<TodoModel> sorted() {
+        if (all != null) return sortedTable();
+
+        List<Ranked> ranked = new ArrayList<>(heap);
+        ranked.sort(order);
+        List<TodoModel> todos = new ArrayList<>(ranked.size());
+        for (Ranked kept : ranked) {
+            todos.add(kept.todo);
+        }
+        return todos;
+    }
+
+    private List<TodoModel> sortedTable() {
+        int[] pathRanks = all.pathRanks();
+        int[] rows = all.sortedRows((left, right) -> {
+            int byDueDate = Integer.compare(all.epochDay(left), all.epochDay(right));
+            if (byDueDate != 0) return dueDateAscending ? byDueDate : -byDueDate;
+            int byPath = Integer.compare(pathRanks[left], pathRanks[right]);
+            if (byPath != 0) return byPath;
+            int byLine = Integer.compare(all.line(left), all.line(right));
+            return byLine != 0 ? byLine : Integer.compare(all.column(left), all.column(right));
+        });
+        // the views are created as the list is read, rather than held all at once
+        return new AbstractList<>() {
+            @Override
+            public TodoModel get(int index) {
+                return all.todo(rows[index]);
+            }
+
+            @Override
+            public int size() {
+                return rows.length;
+            }
+        };
+    }
+
+    private static final class Ranked {
+        private final int epochDay;
+        private final TodoModel todo;
+        private final long arrival;
+
+        private Ranked(int epochDay, TodoModel todo, long arrival) {
+            this.epochDay = epochDay;
+            this.todo = todo;
+            this.arrival = arrival;
+        }
+    }
+}
@@ -1,39 +1,64 @@
 package com.yahorbarkouski.todome.task;
 
 import com.yahorbarkouski.todome.model.TodoModel;
+import com.yahorbarkouski.todome.report.ReportRule;
+import com.yahorbarkouski.todome.scan.TodoReport;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.TaskAction;
 
-import java.io.File;
-import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
-public class VerifyTodosTask extends AbstractTodoTask {
+@CacheableTask
+public abstract class VerifyTodosTask extends AbstractTodoTask {
 
     /**
-     * Verifies all the todos present in the project's root directory,
-     * extracts all todos and generates a report of filtered todos.
+     * The number of violations after which the task stops reading the scanned todos and fails,
+     * every violation is reported when not set.
+     */
+    @Input
+    @Optional
+    public abstract Property<Integer> getMaxViolations();
+
+    /**
+     * Verifies all the todos present in the task sources,
+     * streams the scanned todos and generates a report of filtered todos.
      */
     @TaskAction
     public void verifyTodos() {
-        File srcDir = getProject().getRootDir();
-        report(extractTodos(srcDir, filtered()));
+        reportScannedTodos();
     }
 
     /**
-     * Reports the list of todos. If the list is empty, returns immediately.
-     * For each TodoModel in the list, formats it and logs it with the logger at the lifecycle level.
-     * If any TodoModel in the list does not have a valid due date, throws an IllegalStateException
+     * Reports the todos as they arrive: every TodoModel is written to the reports, formatted and logged
+     * with the logger at the lifecycle level up to the {@link #getConsoleLimit()}, and counted. Once {@link #getMaxViolations()} todos were reported,
+     * the rest of the stream is not read anymore. Whether a scan stopped at its own maximum is told by its report.
+     * If any TodoModel was reported, which means it does not have a valid due date, throws an IllegalStateException
      * with a message indicating the log should be checked for more details.
      *
-     * @param todos the list of TodoModels to report
-     * @throws IllegalStateException if any TodoModel in the list does not have a valid due date
+     * @param todos the stream of TodoModels to report
+     * @throws IllegalStateException if any TodoModel in the stream does not have a valid due date
      */
     @Override
-    public void report(List<TodoModel> todos) {
-        if (todos.isEmpty()) return;
+    public void report(Stream<TodoModel> todos) {
+        int maxViolations = getMaxViolations().getOrElse(Integer.MAX_VALUE);
+        int[] violations = new int[1];
+        TodoConsole console = openConsole();
+        try (ReportWriter writer = openReport()) {
+            todos.limit(maxViolations).forEach(todo -> {
+                writer.write(todo);
+                console.log(todo);
+                violations[0]++;
+            });
+        }
+        console.summarize(getReportFile().get().getAsFile());
+        if (violations[0] == 0) return;
 
-        for (TodoModel todo : todos) {
-            logger.lifecycle(formatted(todo));
+        if (getScanReports().getFiles().stream().anyMatch(TodoReport::isIncomplete)) {
+            logger.lifecycle("Stopped after {} TODOs without a valid due date.", violations[0]);
         }
         throw new IllegalStateException("Found TODOs without a valid due date. Please check the log for more details.");
     }
@@ -62,6 +87,16 @@ public class VerifyTodosTask extends AbstractTodoTask {
                         " without a valid due date.\u001B[0m";
     }
 
+    @Override
+    public ReportRule reportRule() {
+        return new ReportRule(
+                "todo-without-due-date",
+                "TODO without a valid due date",
+                "error",
+                todo -> "TODO of " + todo.getAssignee() + " without a valid due date."
+        );
+    }
+
     @Override
     public Predicate<TodoModel> filtered() {
         return todo -> todo.getDueDate() == null;
@@ -1,13 +1,11 @@
 package com.yahorbarkouski.todome;
 
-import com.yahorbarkouski.todome.task.AbstractTodoTask;
+import com.yahorbarkouski.todome.scan.CommentSyntax;
+import com.yahorbarkouski.todome.scan.CommentSyntaxLexer;
 import org.gradle.testfixtures.ProjectBuilder;
 import org.gradle.api.Project;
 import org.junit.Test;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -23,22 +21,24 @@ public class ToDoMePluginTest {
     }
 
     @Test
-    public void todoPatternApplicable() {
-        Pattern todoPattern = AbstractTodoTask.todoPattern;
+    public void todoLexerApplicable() {
+        CommentSyntaxLexer lexer = new CommentSyntaxLexer(CommentSyntax.jvm());
         // Single line TODO comment with newline
-        Matcher matcher1 = todoPattern.matcher("// TODO: fix this\n");
-        assertTrue(matcher1.find());
+        assertTrue(containsTodo(lexer, "// TODO: fix this\n"));
 
         // Single line TODO comment without newline
-        Matcher matcher2 = todoPattern.matcher("// TODO: fix this");
-        assertTrue(matcher2.find());
+        assertTrue(containsTodo(lexer, "// TODO: fix this"));
 
         // Multi line TODO comment with newline
-        Matcher matcher3 = todoPattern.matcher("/* TODO: fix this */\n");
-        assertTrue(matcher3.find());
+        assertTrue(containsTodo(lexer, "/* TODO: fix this */\n"));
 
         // Multi line TODO comment without newline
-        Matcher matcher4 = todoPattern.matcher("/* TODO: fix this */");
-        assertTrue(matcher4.find());
+        assertTrue(containsTodo(lexer, "/* TODO: fix this */"));
+    }
+
+    private static boolean containsTodo(CommentSyntaxLexer lexer, String text) {
+        boolean[] found = {false};
+        lexer.scan(text, (textStart, textEnd, line, column) -> found[0] = true);
+        return found[0];
     }
 }
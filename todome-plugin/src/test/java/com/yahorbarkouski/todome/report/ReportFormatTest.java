@@ -0,0 +1,86 @@
+package com.yahorbarkouski.todome.report;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReportFormatTest {
+
+    private static final ReportRule RULE = new ReportRule("rule", "Rule", "error", todo -> "TODO of " + todo.getAssignee());
+    private static final List<TodoModel> TODOS = List.of(
+            new TodoModel("yahor", LocalDate.of(2030, 1, 2), "/ignored", 3, 4),
+            new TodoModel("a \"quoted\", name", null, "/ignored", 5, 6)
+    );
+
+    @Test
+    public void jsonIsAnArrayOfTodoObjects() throws IOException {
+        assertEquals(
+                "[\n" +
+                        "  {\"path\":\"src/A.java\",\"line\":3,\"column\":4,\"assignee\":\"yahor\",\"dueDate\":\"2030-01-02\"},\n" +
+                        "  {\"path\":\"src/A.java\",\"line\":5,\"column\":6,\"assignee\":\"a \\\"quoted\\\", name\",\"dueDate\":null}\n" +
+                        "]\n",
+                write(ReportFormat.JSON, TODOS)
+        );
+        assertEquals("[]\n", write(ReportFormat.JSON, List.of()));
+    }
+
+    @Test
+    public void ndjsonHoldsOneTodoPerLine() throws IOException {
+        String report = write(ReportFormat.NDJSON, TODOS);
+
+        assertEquals(2, report.lines().count());
+        assertTrue(report.startsWith("{\"path\":\"src/A.java\",\"line\":3,"));
+    }
+
+    @Test
+    public void csvQuotesFieldsHoldingSeparators() throws IOException {
+        assertEquals(
+                "path,line,column,assignee,dueDate\r\n" +
+                        "src/A.java,3,4,yahor,2030-01-02\r\n" +
+                        "src/A.java,5,6,\"a \"\"quoted\"\", name\",\r\n",
+                write(ReportFormat.CSV, TODOS)
+        );
+    }
+
+    @Test
+    public void sarifReportsEveryTodoAsAResultOfTheRule() throws IOException {
+        String report = write(ReportFormat.SARIF, TODOS);
+
+        assertTrue(report.contains("\"version\": \"2.1.0\""));
+        assertTrue(report.contains("\"rules\": [{\"id\": \"rule\", \"shortDescription\": {\"text\": \"Rule\"}}]"));
+        assertEquals(2, report.split("\"ruleId\": \"rule\", \"level\": \"error\"", -1).length - 1);
+        assertTrue(report.contains("{\"uri\": \"src/A.java\", \"uriBaseId\": \"%SRCROOT%\"}, \"region\": {\"startLine\": 5, \"startColumn\": 6}"));
+        assertTrue(report.contains("\"message\": {\"text\": \"TODO of a \\\"quoted\\\", name\"}"));
+        assertTrue(write(ReportFormat.SARIF, List.of()).contains("\"results\": []"));
+    }
+
+    @Test
+    public void formatsAreResolvedByName() {
+        assertEquals(ReportFormat.SARIF, ReportFormat.of("sarif"));
+        assertEquals(ReportFormat.NDJSON, ReportFormat.of(" NDJSON "));
+        try {
+            ReportFormat.of("xml");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("json, ndjson, sarif, csv"));
+        }
+    }
+
+    private static String write(ReportFormat format, List<TodoModel> todos) throws IOException {
+        StringWriter out = new StringWriter();
+        FormattedReportWriter writer = format.open(out, RULE);
+        for (TodoModel todo : todos) {
+            writer.write("src/A.java", todo);
+        }
+        writer.close();
+        return out.toString();
+    }
+}
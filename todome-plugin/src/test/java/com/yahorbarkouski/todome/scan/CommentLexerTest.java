@@ -0,0 +1,68 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CommentLexerTest {
+
+    private static final CommentSyntaxLexer LEXER = new CommentSyntaxLexer(CommentSyntax.jvm());
+
+    @Test
+    public void findsLineAndBlockComments() {
+        List<String> todos = scan("""
+                // TODO: first
+                int a = 1; //TODO second
+                /* TODO: third */
+                /**
+                 * Some KDoc.
+                 * TODO: fourth
+                 */
+                // not a todo
+                /* neither */
+                """);
+
+        assertEquals(List.of(
+                "1:1 TODO: first",
+                "2:12 TODO second",
+                "3:1 TODO: third ",
+                "4:1 TODO: fourth\\n "
+        ), todos);
+    }
+
+    @Test
+    public void skipsStringAndCharLiterals() {
+        List<String> todos = scan("""
+                String url = "http://example.com // TODO: not a comment";
+                char quote = '"'; // TODO: after a char literal
+                String escaped = "\\\\" + "\\" /* TODO: in string */";
+                val raw = \"\"\"
+                    // TODO: inside a raw string
+                \"\"\"
+                // TODO: after a raw string
+                """);
+
+        assertEquals(List.of(
+                "2:19 TODO: after a char literal",
+                "7:1 TODO: after a raw string"
+        ), todos);
+    }
+
+    @Test
+    public void doesNotMatchAcrossComments() {
+        List<String> todos = scan("/* first */ int a; /* second */\n/* TODO: third */");
+
+        assertEquals(List.of("2:1 TODO: third "), todos);
+    }
+
+    private static List<String> scan(String text) {
+        List<String> todos = new ArrayList<>();
+        LEXER.scan(text, (textStart, textEnd, line, column) -> todos.add(
+                line + ":" + column + " " + text.substring(textStart, textEnd).replace("\n", "\\n").replace(" *", "")
+        ));
+        return todos;
+    }
+}
@@ -0,0 +1,110 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CommentSyntaxLexerTest {
+
+    @Test
+    public void lexesJvmSources() {
+        List<String> todos = scan(CommentSyntax.jvm(), """
+                // TODO: first
+                int a = 1; //TODO second
+                /**
+                 * TODO: third
+                 */
+                String url = "http://example.com // TODO: not a comment";
+                char quote = '"'; // TODO: after a char literal
+                val raw = \"\"\"
+                    // TODO: inside a raw string
+                \"\"\"\"
+                /* first */ int b; /* TODO: last */
+                """);
+
+        assertEquals(List.of(
+                "1:1 TODO: first",
+                "2:12 TODO second",
+                "3:1 TODO: third\n ",
+                "7:19 TODO: after a char literal",
+                "11:20 TODO: last "
+        ), todos);
+    }
+
+    @Test
+    public void nestedBlockCommentsAreReportedOnce() {
+        List<String> todos = scan(CommentSyntax.scala(), """
+                /* outer /* inner */ TODO: still in the outer comment */ val a = "/* not a comment"
+                // TODO: after
+                """);
+
+        assertEquals(List.of(
+                "1:1 TODO: still in the outer comment ",
+                "2:1 TODO: after"
+        ), todos);
+    }
+
+    @Test
+    public void sqlQuotesAreEscapedByDoublingThem() {
+        List<String> todos = scan(CommentSyntax.sql(), """
+                SELECT 'it''s -- TODO: not a comment' FROM dual; -- TODO: drop the table
+                /* TODO: add an index */
+                """);
+
+        assertEquals(List.of(
+                "1:50 TODO: drop the table",
+                "2:1 TODO: add an index "
+        ), todos);
+    }
+
+    @Test
+    public void hashesOnlyStartCommentsAfterWhitespace() {
+        List<String> todos = scan(CommentSyntax.shell(), """
+                # TODO: first
+                echo $# '# TODO: quoted' "and # TODO: quoted too"
+                echo done # TODO: last
+                """);
+
+        assertEquals(List.of("1:1 TODO: first", "3:11 TODO: last"), todos);
+    }
+
+    @Test
+    public void longestDelimiterWins() {
+        CommentSyntax lua = new CommentSyntax("lua");
+        lua.lineComment("--");
+        lua.blockComment("--[[", "]]");
+        lua.quote("\"");
+
+        List<String> todos = scan(lua, """
+                --[[ a block
+                TODO: spanning lines ]] print("-- TODO: no")
+                -- TODO: a line
+                """);
+
+        assertEquals(List.of("1:1 TODO: spanning lines ", "3:1 TODO: a line"), todos);
+    }
+
+    @Test
+    public void emptyDelimitersAreRejected() {
+        CommentSyntax syntax = new CommentSyntax("broken");
+        syntax.lineComment("");
+        try {
+            new CommentSyntaxLexer(syntax);
+            fail("expected the syntax to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Empty delimiter in comment syntax broken", e.getMessage());
+        }
+    }
+
+    private static List<String> scan(CommentSyntax syntax, String text) {
+        List<String> todos = new ArrayList<>();
+        new CommentSyntaxLexer(syntax).scan(text, (textStart, textEnd, line, column) -> todos.add(
+                line + ":" + column + " " + text.substring(textStart, textEnd)
+        ));
+        return todos;
+    }
+}
@@ -0,0 +1,54 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CommentSyntaxTableTest {
+
+    @Test
+    public void filesAreDispatchedByExtension() {
+        CommentSyntaxTable table = new CommentSyntaxTable(List.of(CommentSyntax.jvm(), CommentSyntax.sql(), CommentSyntax.yaml()));
+
+        assertTrue(table.isSource("Test.java"));
+        assertTrue(table.isSource("build.gradle.kts"));
+        assertTrue(table.isSource("V1__init.sql"));
+        assertTrue(table.isSource("lib-sources.jar!/com/example/Test.kt"));
+        assertFalse(table.isSource("README.md"));
+        assertFalse(table.isSource("Makefile"));
+        assertNull(table.lexer("config.d/settings"));
+    }
+
+    @Test
+    public void lastSyntaxClaimingAnExtensionWins() {
+        CommentSyntax script = new CommentSyntax("script");
+        script.setExtensions(List.of(".kts"));
+        script.lineComment("#");
+        CommentSyntaxTable table = new CommentSyntaxTable(List.of(CommentSyntax.jvm(), script));
+
+        List<String> todos = new ArrayList<>();
+        String text = "# TODO: hash\n// TODO: slashes\n";
+        table.lexer("build.gradle.kts").scan(text, (textStart, textEnd, line, column) -> todos.add(text.substring(textStart, textEnd)));
+        assertEquals(List.of("TODO: hash"), todos);
+        assertTrue(table.isSource("Test.kt"));
+    }
+
+    @Test
+    public void extensionsNeedALeadingDot() {
+        CommentSyntax syntax = new CommentSyntax("toml");
+        syntax.setExtensions(List.of("toml"));
+        try {
+            new CommentSyntaxTable(List.of(syntax));
+            fail("expected the extension to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Extension toml of comment syntax toml"));
+        }
+    }
+}
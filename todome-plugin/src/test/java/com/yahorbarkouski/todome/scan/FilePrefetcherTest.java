@@ -0,0 +1,121 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FilePrefetcherTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    @Test
+    public void filesAfterTheStartedOneAreReadAhead() throws IOException {
+        List<File> files = List.of(file("A.java", "// TODO: a"), file("B.java", "// TODO: b"), file("C.java", "// TODO: c"));
+
+        try (FilePrefetcher prefetcher = new FilePrefetcher(files, 2, file -> true)) {
+            prefetcher.wrap(file -> List.of()).apply(files.get(0));
+            waitFor(() -> prefetcher.isReadAhead(files.get(1)) && prefetcher.isReadAhead(files.get(2)));
+
+            ByteBuffer bytes = prefetcher.take(files.get(1));
+            assertEquals("// TODO: b", StandardCharsets.UTF_8.decode(bytes).toString());
+            assertFalse(prefetcher.isReadAhead(files.get(1)));
+            assertNull(prefetcher.take(files.get(1)));
+        }
+    }
+
+    @Test
+    public void budgetBoundsTheBytesReadAhead() throws IOException {
+        List<File> files = List.of(file("A.java", "12345678"), file("B.java", "12345678"), file("C.java", "12345678"));
+
+        try (FilePrefetcher prefetcher = new FilePrefetcher(files, 1, file -> true, 2, 10, FilePrefetcherTest::read)) {
+            prefetcher.wrap(file -> List.of()).apply(files.get(0));
+            waitFor(() -> prefetcher.isReadAhead(files.get(1)));
+            assertEquals(2, prefetcher.availableBudget());
+            assertFalse(prefetcher.isReadAhead(files.get(2)));
+
+            // consuming a file returns its bytes to the budget, and lets the next read go
+            prefetcher.wrap(file -> {
+                prefetcher.take(file);
+                return List.of();
+            }).apply(files.get(1));
+            waitFor(() -> prefetcher.isReadAhead(files.get(2)));
+            assertEquals(2, prefetcher.availableBudget());
+        }
+    }
+
+    @Test
+    public void readsNotStartedAreTakenOverByTheWorkers() throws IOException {
+        List<File> files = List.of(file("A.java", "a"), file("B.java", "b"), file("C.java", "c"));
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (FilePrefetcher prefetcher = new FilePrefetcher(files, 1, file -> true, 2, 1024, file -> {
+            reading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return read(file);
+        })) {
+            prefetcher.wrap(file -> List.of()).apply(files.get(0));
+            waitFor(() -> reading.getCount() == 0);
+
+            // the only reader is busy with B, C is left to the worker
+            assertNull(prefetcher.take(files.get(2)));
+            release.countDown();
+            waitFor(() -> prefetcher.isReadAhead(files.get(1)));
+            assertFalse(prefetcher.isReadAhead(files.get(2)));
+        }
+    }
+
+    @Test
+    public void filesServedFromTheIndexAreNotReadAhead() throws IOException {
+        List<File> files = List.of(file("A.java", "a"), file("B.java", "b"), file("C.java", "c"));
+
+        try (FilePrefetcher prefetcher = new FilePrefetcher(files, 2, file -> !file.getName().equals("B.java"))) {
+            prefetcher.wrap(file -> List.of()).apply(files.get(0));
+            waitFor(() -> prefetcher.isReadAhead(files.get(2)));
+
+            assertFalse(prefetcher.isReadAhead(files.get(1)));
+            assertNull(prefetcher.take(files.get(1)));
+        }
+    }
+
+    private File file(String name, String content) throws IOException {
+        File file = testProjectDir.newFile(name);
+        Files.writeString(file.toPath(), content);
+        return file;
+    }
+
+    private static ByteBuffer read(File file) {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue("timed out", System.nanoTime() < deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
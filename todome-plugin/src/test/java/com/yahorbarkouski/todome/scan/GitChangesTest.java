@@ -0,0 +1,71 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GitChangesTest {
+
+    private static final String DIFF = """
+            diff --git a/src/Changed.java b/src/Changed.java
+            index 3b18e51..a2b5c4f 100644
+            --- a/src/Changed.java
+            +++ b/src/Changed.java
+            @@ -2,0 +3,2 @@ class Changed {
+            +// TODO: first
+            +// TODO: second
+            @@ -10 +12 @@ class Changed {
+            -// TODO: old
+            +// TODO: new
+            @@ -20,3 +22,0 @@ class Changed {
+            -gone
+            -gone
+            -gone
+            diff --git a/src/Removed.java b/src/Removed.java
+            deleted file mode 100644
+            --- a/src/Removed.java
+            +++ /dev/null
+            @@ -1 +0,0 @@
+            -// TODO: removed
+            diff --git a/src/With Space.java b/src/With Space.java
+            new file mode 100644
+            --- /dev/null
+            +++ b/src/With Space.java\t
+            @@ -0,0 +1 @@
+            +// TODO: added
+            """;
+
+    @Test
+    public void changedLinesAreReadFromTheNewSideOfTheHunks() {
+        GitChanges changes = GitChanges.parse(DIFF, "");
+
+        assertTrue(changes.contains("src/Changed.java"));
+        assertFalse(changes.contains("src/Changed.java", 2));
+        assertTrue(changes.contains("src/Changed.java", 3));
+        assertTrue(changes.contains("src/Changed.java", 4));
+        assertFalse(changes.contains("src/Changed.java", 5));
+        assertTrue(changes.contains("src/Changed.java", 12));
+        assertFalse(changes.contains("src/Changed.java", 22));
+        assertTrue(changes.contains("src/With Space.java", 1));
+        assertFalse(changes.contains("src/Removed.java"));
+        assertEquals(2, changes.size());
+    }
+
+    @Test
+    public void untrackedFilesAreChangedAsAWhole() {
+        GitChanges changes = GitChanges.parse("", "src/New.java\nsrc/Other.kt\n");
+
+        assertTrue(changes.contains("src/New.java", 1));
+        assertTrue(changes.contains("src/Other.kt", 1000));
+        assertFalse(changes.contains("src/Old.java"));
+    }
+
+    @Test
+    public void equalChangesAreEqual() {
+        assertEquals(GitChanges.parse(DIFF, "src/New.java"), GitChanges.parse(DIFF, "src/New.java"));
+        assertEquals(GitChanges.parse(DIFF, "src/New.java").hashCode(), GitChanges.parse(DIFF, "src/New.java").hashCode());
+        assertFalse(GitChanges.parse(DIFF, "").equals(GitChanges.parse(DIFF, "src/New.java")));
+    }
+}
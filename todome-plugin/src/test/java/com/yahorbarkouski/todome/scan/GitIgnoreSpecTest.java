@@ -0,0 +1,75 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GitIgnoreSpecTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    @Test
+    public void matchesUnanchoredRulesAtAnyDepth() throws IOException {
+        GitIgnoreSpec spec = specWith("", "*.generated.java\nout/\n");
+
+        assertTrue(spec.isIgnored(file("Test.generated.java"), false));
+        assertTrue(spec.isIgnored(file("src/main/Test.generated.java"), false));
+        assertTrue(spec.isIgnored(file("module/out"), true));
+        assertFalse(spec.isIgnored(file("module/out"), false));
+        assertFalse(spec.isIgnored(file("src/main/Test.java"), false));
+    }
+
+    @Test
+    public void matchesAnchoredRulesRelativeToTheirGitignore() throws IOException {
+        GitIgnoreSpec spec = specWith("", "/generated\nsrc/**/fixtures/*.kt\n");
+
+        assertTrue(spec.isIgnored(file("generated"), true));
+        assertFalse(spec.isIgnored(file("module/generated"), true));
+        assertTrue(spec.isIgnored(file("src/fixtures/Test.kt"), false));
+        assertTrue(spec.isIgnored(file("src/test/kotlin/fixtures/Test.kt"), false));
+        assertFalse(spec.isIgnored(file("module/src/fixtures/Test.kt"), false));
+    }
+
+    @Test
+    public void laterAndDeeperRulesTakePrecedence() throws IOException {
+        GitIgnoreSpec spec = specWith("", "*.java\n!Keep.java\n");
+        write("module/.gitignore", "!*.java\nLegacy.java\n# comment\n");
+
+        assertTrue(spec.isIgnored(file("Test.java"), false));
+        assertFalse(spec.isIgnored(file("Keep.java"), false));
+        assertFalse(spec.isIgnored(file("module/Test.java"), false));
+        assertTrue(spec.isIgnored(file("module/Legacy.java"), false));
+    }
+
+    @Test
+    public void ignoresFilesOutsideOfTheRoot() throws IOException {
+        write(".gitignore", "*.java\n");
+        GitIgnoreSpec spec = new GitIgnoreSpec(file("module"));
+
+        assertFalse(spec.isIgnored(file("Test.java"), false));
+        assertFalse(spec.isIgnored(file("module/Test.java"), false));
+    }
+
+    private GitIgnoreSpec specWith(String dir, String rules) throws IOException {
+        write(dir + ".gitignore", rules);
+        return new GitIgnoreSpec(testProjectDir.getRoot());
+    }
+
+    private void write(String path, String content) throws IOException {
+        File file = file(path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.writeString(file.toPath(), content);
+    }
+
+    private File file(String path) {
+        return new File(testProjectDir.getRoot(), path);
+    }
+}
@@ -0,0 +1,88 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LiveTodoIndexTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    @Test
+    public void todosAreHandedOverInFilePathOrder() {
+        LiveTodoIndex index = new LiveTodoIndex();
+        index.update(new File("src/B.java"), List.of(todo("src/B.java", 1)));
+        index.update(new File("src/A.java"), List.of(todo("src/A.java", 2), todo("src/A.java", 5)));
+        index.update(new File("src/C.java"), List.of(todo("src/C.java", 1)));
+        index.remove(new File("src/C.java"));
+
+        List<String> todos = new ArrayList<>();
+        assertTrue(index.forEachWhile(todo -> todos.add(todo.getFilePath() + ":" + todo.getLineNumber())));
+        assertEquals(List.of("src/A.java:2", "src/A.java:5", "src/B.java:1"), todos);
+    }
+
+    @Test
+    public void sinkStopsTheIteration() {
+        LiveTodoIndex index = new LiveTodoIndex();
+        index.update(new File("A.java"), List.of(todo("A.java", 1), todo("A.java", 2), todo("A.java", 3)));
+
+        List<TodoModel> todos = new ArrayList<>();
+        assertFalse(index.forEachWhile(todo -> todos.add(todo) && todos.size() < 2));
+        assertEquals(2, todos.size());
+    }
+
+    @Test
+    public void replacedTodosAreDroppedOnceTheyOutnumberTheOthers() throws IOException {
+        File report = testProjectDir.newFile("todos.bin");
+        LiveTodoIndex index = new LiveTodoIndex();
+        index.update(new File("A.java"), List.of(todo("A.java", 1), todo("A.java", 2)));
+        index.update(new File("B.java"), List.of(todo("B.java", 1)));
+        index.update(new File("A.java"), List.of(todo("A.java", 3)));
+        index.commit(report, "settings");
+        assertEquals(4, index.tableSize());
+
+        index.update(new File("B.java"), List.of(todo("B.java", 4)));
+        index.commit(report, "settings");
+
+        assertEquals(2, index.tableSize());
+        List<String> todos = new ArrayList<>();
+        assertTrue(index.forEachWhile(todo -> todos.add(todo.getFilePath() + ":" + todo.getLineNumber())));
+        assertEquals(List.of("A.java:3", "B.java:4"), todos);
+    }
+
+    @Test
+    public void indexIsOnlyCurrentForTheReportItWasCommittedWith() throws IOException {
+        File report = testProjectDir.newFile("todos.bin");
+        Files.writeString(report.toPath(), "report");
+        LiveTodoIndex index = new LiveTodoIndex();
+        assertFalse(index.isCurrent(report, "settings"));
+
+        index.commit(report, "settings");
+        assertTrue(index.isCurrent(report, "settings"));
+        assertFalse(index.isCurrent(report, "other settings"));
+
+        Files.writeString(report.toPath(), "written by another daemon");
+        assertFalse(index.isCurrent(report, "settings"));
+
+        index.commit(report, "settings");
+        index.invalidate();
+        assertFalse(index.isCurrent(report, "settings"));
+    }
+
+    private static TodoModel todo(String path, int line) {
+        return new TodoModel("yahor", LocalDate.of(2030, 1, 1), path, line, 1);
+    }
+}
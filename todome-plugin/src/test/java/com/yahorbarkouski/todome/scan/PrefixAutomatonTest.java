@@ -0,0 +1,65 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PrefixAutomatonTest {
+
+    @Test
+    public void findsTheEarliestAndThenLongestWord() {
+        PrefixAutomaton automaton = new PrefixAutomaton(List.of("deadline", "due", "due to", "e t", "until"));
+
+        assertEquals(13, automaton.findEarliest("fix it due to 10.10.2030", 0, 24));
+        assertEquals(12, automaton.findEarliest("fix it until 1.1, deadline 2.2", 0, 30));
+        assertEquals(6, automaton.findEarliest("xx due tx", 0, 9));
+        assertEquals(12, automaton.findEarliest("fix it due to 10.10.2030", 8, 24));
+        assertEquals(-1, automaton.findEarliest("fix it due to 10.10.2030", 11, 24));
+        assertEquals(-1, automaton.findEarliest("no prefix at all", 0, 16));
+    }
+
+    @Test
+    public void matchesNonAsciiWords() {
+        PrefixAutomaton automaton = new PrefixAutomaton(List.of("fällig am", "bis"));
+
+        assertEquals(15, automaton.findEarliest("TODO: fällig am 1.1.2030", 0, 25));
+    }
+
+    @Test
+    public void agreesWithABruteForceSearch() {
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            List<String> words = List.of(
+                    randomText(random, 1 + random.nextInt(4)),
+                    randomText(random, 1 + random.nextInt(4)),
+                    randomText(random, 1 + random.nextInt(6))
+            );
+            String text = randomText(random, random.nextInt(40));
+            PrefixAutomaton automaton = new PrefixAutomaton(words);
+
+            assertEquals(words + " " + text, bruteForce(words, text), automaton.findEarliest(text, 0, text.length()));
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append("abc ".charAt(random.nextInt(4)));
+        }
+        return builder.toString();
+    }
+
+    private static int bruteForce(List<String> words, String text) {
+        for (int start = 0; start < text.length(); start++) {
+            int longest = 0;
+            for (String word : words) {
+                if (text.startsWith(word, start)) longest = Math.max(longest, word.length());
+            }
+            if (longest > 0) return start + longest;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,81 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScanMetricsTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    @Test
+    public void noopCollectsNothing() {
+        ScanMetrics metrics = ScanMetrics.NOOP;
+        long wallStart = metrics.wallTime();
+        metrics.record(ScanMetrics.Phase.READ, wallStart, metrics.cpuTime());
+        metrics.add(ScanMetrics.Phase.LEX, 1_000, 1_000);
+        metrics.fileScanned("Test.java", 10, wallStart);
+
+        assertFalse(metrics.isEnabled());
+        assertEquals(0, metrics.getWallNanos(ScanMetrics.Phase.LEX));
+        assertTrue(metrics.getSlowestFiles().isEmpty());
+    }
+
+    @Test
+    public void keepsTheSlowestFiles() {
+        ScanMetrics metrics = new ScanMetrics(2);
+        long now = metrics.wallTime();
+        metrics.fileScanned("Fast.java", 10, now - 1_000);
+        metrics.fileScanned("Slowest.java", 10, now - 3_000_000);
+        metrics.fileScanned("Slow.java", 10, now - 2_000_000);
+
+        List<ScanMetrics.FileTime> slowest = metrics.getSlowestFiles();
+        assertEquals(2, slowest.size());
+        assertEquals("Slowest.java", slowest.get(0).getPath());
+        assertEquals("Slow.java", slowest.get(1).getPath());
+    }
+
+    @Test
+    public void phasesAreSummedUp() {
+        ScanMetrics metrics = new ScanMetrics(0);
+        metrics.add(ScanMetrics.Phase.PARSE, 1_000_000, 500_000);
+        metrics.add(ScanMetrics.Phase.PARSE, 2_000_000, 500_000);
+        metrics.finish();
+
+        assertEquals(3_000_000, metrics.getWallNanos(ScanMetrics.Phase.PARSE));
+        assertEquals(1_000_000, metrics.getCpuNanos(ScanMetrics.Phase.PARSE));
+        assertTrue(metrics.summary(null).startsWith("parse 3.000 ms, total "));
+    }
+
+    @Test
+    public void writesTheMetricsAsJson() throws IOException {
+        ScanMetrics metrics = new ScanMetrics(1);
+        ScanStatistics statistics = new ScanStatistics();
+        statistics.fileScanned(42);
+        statistics.fileParsed();
+        metrics.add(ScanMetrics.Phase.WALK, 1_500_000, 1_000_000);
+        metrics.fileScanned("src/\"Quoted\".java", 42, metrics.wallTime());
+        metrics.finish();
+
+        File file = new File(testProjectDir.getRoot(), "build/todome/scanTodos-metrics.json");
+        metrics.write(file, ":scanTodos", statistics);
+
+        String json = Files.readString(file.toPath());
+        assertTrue(json.contains("\"task\": \":scanTodos\""));
+        assertTrue(json.contains("\"files\": 1"));
+        assertTrue(json.contains("\"bytes\": 42"));
+        assertTrue(json.contains("\"filesParsed\": 1"));
+        assertTrue(json.contains("\"walk\": {\"wallTimeMs\": 1.500, \"cpuTimeMs\": 1.000}"));
+        assertTrue(json.contains("{\"path\": \"src/\\\"Quoted\\\".java\", \"bytes\": 42, "));
+    }
+}
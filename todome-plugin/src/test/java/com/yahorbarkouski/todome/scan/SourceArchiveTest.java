@@ -0,0 +1,74 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SourceArchiveTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    @Test
+    public void entriesAreReadInNameOrder() throws IOException {
+        File archive = archive("lib-sources.jar", "com/example/B.java", "// TODO: b", "com/example/A.java", "// TODO: a",
+                "META-INF/MANIFEST.MF", "Manifest-Version: 1.0", "com/example/C.kt", "// TODO: longer than the others");
+
+        List<String> entries = new ArrayList<>();
+        SourceArchive.forEachEntry(archive, name -> !name.startsWith("META-INF/"), (path, content) ->
+                entries.add(path + "=" + StandardCharsets.UTF_8.decode(content)));
+
+        assertEquals(List.of(
+                archive.getPath() + "!/com/example/A.java=// TODO: a",
+                archive.getPath() + "!/com/example/B.java=// TODO: b",
+                archive.getPath() + "!/com/example/C.kt=// TODO: longer than the others"
+        ), entries);
+    }
+
+    @Test
+    public void archivesAreRecognizedByExtension() {
+        assertTrue(SourceArchive.isArchive(new File("libs/lib-sources.jar")));
+        assertTrue(SourceArchive.isArchive(new File("vendor/generated.zip")));
+        assertFalse(SourceArchive.isArchive(new File("src/Jar.java")));
+    }
+
+    @Test
+    public void corruptArchivesFail() throws IOException {
+        File archive = testProjectDir.newFile("broken.zip");
+        try (FileOutputStream out = new FileOutputStream(archive)) {
+            out.write("not a zip".getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            SourceArchive.forEachEntry(archive, name -> true, (path, content) -> { });
+            fail("expected the archive to be rejected");
+        } catch (IllegalStateException e) {
+            assertEquals("Failed to read archive broken.zip", e.getMessage());
+        }
+    }
+
+    private File archive(String name, String... entries) throws IOException {
+        File archive = testProjectDir.newFile(name);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+            for (int i = 0; i < entries.length; i += 2) {
+                out.putNextEntry(new ZipEntry(entries[i]));
+                out.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return archive;
+    }
+}
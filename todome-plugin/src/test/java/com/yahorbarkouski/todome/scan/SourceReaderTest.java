@@ -0,0 +1,78 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SourceReaderTest {
+
+    // non-ASCII characters precede the first todo, and are part of both todo comments
+    private static final String SOURCE = "String s = \"\u017c\u00f3\u0142\u0107\"; // TODO: napraw by @\u0142ukasz\n" +
+            "/* TODO: \u00fcnic\u00f6d\u00e9 */";
+    private static final List<String> EXPECTED = List.of(
+            "1:20 TODO: napraw by @\u0142ukasz",
+            "2:1 TODO: \u00fcnic\u00f6d\u00e9 "
+    );
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    @Test
+    public void lexesUtf8BytesAndDecodesOnlyTodoComments() throws IOException {
+        List<String> todos = scan(new SourceReader(StandardCharsets.UTF_8), write(StandardCharsets.UTF_8));
+
+        assertEquals(EXPECTED, todos);
+    }
+
+    @Test
+    public void mapsLargeFiles() throws IOException {
+        List<String> todos = scan(new SourceReader(StandardCharsets.UTF_8, 16), write(StandardCharsets.UTF_8));
+
+        assertEquals(EXPECTED, todos);
+    }
+
+    @Test
+    public void readsSingleByteAndUtf16Charsets() throws IOException {
+        Charset latin2 = Charset.forName("ISO-8859-2");
+        List<String> latin2Todos = scan(new SourceReader(latin2), write(latin2));
+        List<String> utf16Todos = scan(new SourceReader(StandardCharsets.UTF_16), write(StandardCharsets.UTF_16));
+
+        assertEquals(EXPECTED, latin2Todos);
+        assertEquals(EXPECTED, utf16Todos);
+    }
+
+    @Test
+    public void detectsAsciiCompatibleCharsets() {
+        assertTrue(SourceReader.isAsciiCompatible(StandardCharsets.UTF_8));
+        assertTrue(SourceReader.isAsciiCompatible(StandardCharsets.ISO_8859_1));
+        assertTrue(SourceReader.isAsciiCompatible(Charset.forName("windows-1251")));
+        assertFalse(SourceReader.isAsciiCompatible(StandardCharsets.UTF_16));
+        assertFalse(SourceReader.isAsciiCompatible(Charset.forName("Shift_JIS")));
+    }
+
+    private File write(Charset charset) throws IOException {
+        File file = testProjectDir.newFile("Test-" + charset.name() + ".java");
+        Files.writeString(file.toPath(), SOURCE, charset);
+        return file;
+    }
+
+    private static List<String> scan(SourceReader reader, File file) {
+        CharSequence text = reader.read(file);
+        List<String> todos = new ArrayList<>();
+        new CommentSyntaxLexer(CommentSyntax.jvm()).scan(text, (textStart, textEnd, line, column) ->
+                todos.add(line + ":" + column + " " + text.subSequence(textStart, textEnd)));
+        return todos;
+    }
+}
@@ -0,0 +1,94 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TodoExtractionPlanTest {
+
+    private final TodoExtractionPlan plan = new TodoExtractionPlan("@", List.of("due to", "deadline"), "dd.MM.yyyy");
+
+    @Test
+    public void extractsTheFirstMentionedAssignee() {
+        assertEquals("yahor", assignee(plan, "TODO: fix by @yahor and @damna"));
+        assertEquals("damna_2", assignee(plan, "TODO: mail me@ or @damna_2"));
+        assertEquals("unassigned", assignee(plan, "TODO: nobody @ all"));
+        assertEquals("unassigned", assignee(plan, "TODO: nobody"));
+    }
+
+    @Test
+    public void honoursTheMentionSymbol() {
+        TodoExtractionPlan hashPlan = new TodoExtractionPlan("#", List.of("due to"), "dd.MM.yyyy");
+
+        assertEquals("yahor", assignee(hashPlan, "TODO: @someone else, #yahor"));
+        assertEquals("unassigned", assignee(hashPlan, "TODO: @someone else"));
+    }
+
+    @Test
+    public void internsRecurringAssignees() {
+        String text = "TODO: @yahor, TODO: @yahor";
+
+        assertSame(plan.assignee(text, 0, 12), plan.assignee(text, 13, text.length()));
+    }
+
+    @Test
+    public void extractsTheDueDateFollowingTheEarliestPrefix() {
+        String text = "// TODO: @yahor deadline 01.02.2031, due to 10.10.2030.";
+
+        assertEquals(LocalDate.of(2031, 2, 1), plan.dueDate(text, 3, text.length()));
+        assertEquals(LocalDate.of(2030, 10, 10), plan.dueDate(text, 36, text.length()));
+        assertNull(plan.dueDate(text, 3, 15));
+        assertNull(plan.dueDate("TODO: due to tomorrow", 0, 21));
+    }
+
+    @Test
+    public void parsesDueDatesLikeTheFormatter() {
+        List<String> formats = List.of("dd.MM.yyyy", "d.M.yyyy", "ddMMyyyy", "yyyy-MM-dd", "d MMM yyyy", "MM/dd/uuuu");
+        List<String> dates = List.of(
+                "10.10.2023", "1.1.2023", "01.01.2023", "001.1.2023", "31.02.2024", "31.04.2023", "32.01.2023",
+                "10.13.2023", "10.10.0000", "10.10.20231", "10.10.+2023", "10102023", "2023-10-10", "2023-1-10",
+                "3 Dec 2011", "3 dec 2011", "10/31/2023", "02/30/2023", "10.10.2023x", "", "10.10.", "1..1.2023"
+        );
+        for (String format : formats) {
+            TodoExtractionPlan formatPlan = new TodoExtractionPlan("@", List.of("due to"), format);
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
+            for (String date : dates) {
+                String text = "TODO: due to " + date + " and more";
+
+                assertEquals(format + " " + date, reference(text, formatter, format), formatPlan.dueDate(text, 0, text.length()));
+            }
+        }
+    }
+
+    @Test
+    public void onlyNumericAsciiPlansRunOverRawBytes() {
+        assertTrue(plan.isAsciiOnly());
+        assertFalse(new TodoExtractionPlan("@", List.of("due to"), "d MMM yyyy").isAsciiOnly());
+        assertFalse(new TodoExtractionPlan("§", List.of("due to"), "dd.MM.yyyy").isAsciiOnly());
+        assertFalse(new TodoExtractionPlan("@", List.of("fällig am"), "dd.MM.yyyy").isAsciiOnly());
+    }
+
+    private static String assignee(TodoExtractionPlan plan, String text) {
+        return plan.assignee(text, 0, text.length());
+    }
+
+    // the way due dates used to be extracted, with substrings and the formatter
+    private static LocalDate reference(String comment, DateTimeFormatter formatter, String format) {
+        int start = comment.indexOf("due to") + "due to".length();
+        String date = comment.substring(start, Math.min(comment.length(), start + format.length() + 1)).trim();
+        try {
+            return LocalDate.parse(date, formatter);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
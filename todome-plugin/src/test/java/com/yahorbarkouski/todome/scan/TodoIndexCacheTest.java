@@ -0,0 +1,169 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TodoIndexCacheTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    private final AtomicInteger extractions = new AtomicInteger();
+    private final TodoIndexCache.Extractor extractor = (file, hash) -> {
+        extractions.incrementAndGet();
+        try {
+            hash.update(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return List.of(new TodoModel("yahor", LocalDate.of(2023, 10, 10), file.getPath(), 3, 5));
+    };
+
+    @Test
+    public void unchangedFilesAreServedFromTheIndex() throws IOException {
+        File index = new File(testProjectDir.getRoot(), "build/todome/index.bin");
+        File source = testProjectDir.newFile("Test.java");
+        Files.writeString(source.toPath(), "// TODO: due to 10.10.2023");
+
+        TodoIndexCache first = TodoIndexCache.load(index, "settings");
+        first.todos(source, extractor);
+        first.save();
+
+        List<TodoModel> cached = TodoIndexCache.load(index, "settings").todos(source, extractor);
+
+        assertEquals(1, extractions.get());
+        assertEquals("yahor", cached.get(0).getAssignee());
+        assertEquals(LocalDate.of(2023, 10, 10), cached.get(0).getDueDate());
+        assertEquals(3, cached.get(0).getLineNumber());
+        assertEquals(5, cached.get(0).getColumnNumber());
+    }
+
+    @Test
+    public void touchedFileWithSameContentIsNotParsedAgain() throws IOException {
+        File index = new File(testProjectDir.getRoot(), "build/todome/index.bin");
+        File source = testProjectDir.newFile("Test.java");
+        Files.writeString(source.toPath(), "// TODO: due to 10.10.2023");
+
+        TodoIndexCache first = TodoIndexCache.load(index, "settings");
+        first.todos(source, extractor);
+        first.save();
+        assertTrue(source.setLastModified(source.lastModified() - 10_000));
+
+        TodoIndexCache.load(index, "settings").todos(source, extractor);
+
+        assertEquals(1, extractions.get());
+    }
+
+    @Test
+    public void changedFilesAndSettingsInvalidateTheIndex() throws IOException {
+        File index = new File(testProjectDir.getRoot(), "build/todome/index.bin");
+        File source = testProjectDir.newFile("Test.java");
+        Files.writeString(source.toPath(), "// TODO: due to 10.10.2023");
+
+        TodoIndexCache first = TodoIndexCache.load(index, "settings");
+        first.todos(source, extractor);
+        first.save();
+
+        Files.writeString(source.toPath(), "// TODO: due to 10.10.2024, changed");
+        TodoIndexCache second = TodoIndexCache.load(index, "settings");
+        second.todos(source, extractor);
+        second.save();
+        assertEquals(2, extractions.get());
+
+        TodoIndexCache.load(index, "other settings").todos(source, extractor);
+        assertEquals(3, extractions.get());
+    }
+
+    @Test
+    public void touchedFileIndexedWithoutHashIsParsedAgain() throws IOException {
+        File index = new File(testProjectDir.getRoot(), "build/todome/index.bin");
+        File source = testProjectDir.newFile("Test.java");
+        Files.writeString(source.toPath(), "// TODO: due to 10.10.2023");
+
+        TodoIndexCache first = TodoIndexCache.load(index, "settings");
+        first.todos(source, (file, hash) -> List.of());
+        first.save();
+        assertTrue(source.setLastModified(source.lastModified() - 10_000));
+        TodoIndexCache.load(index, "settings").todos(source, extractor);
+
+        assertEquals(1, extractions.get());
+    }
+
+    @Test
+    public void touchedFileHashedAsAWholeIsNotParsedAgain() throws IOException {
+        File index = new File(testProjectDir.getRoot(), "build/todome/index.bin");
+        File archive = testProjectDir.newFile("lib-sources.jar");
+        Files.writeString(archive.toPath(), "archive");
+        TodoIndexCache.Extractor archiveExtractor = (file, hash) -> {
+            extractions.incrementAndGet();
+            hash.update(file);
+            return List.of();
+        };
+
+        TodoIndexCache first = TodoIndexCache.load(index, "settings");
+        first.todos(archive, archiveExtractor);
+        first.save();
+        assertTrue(archive.setLastModified(archive.lastModified() - 10_000));
+        TodoIndexCache.load(index, "settings").todos(archive, archiveExtractor);
+
+        assertEquals(1, extractions.get());
+    }
+
+    @Test
+    public void unvisitedFilesAreDroppedUnlessRetained() throws IOException {
+        File index = new File(testProjectDir.getRoot(), "build/todome/index.bin");
+        File visited = testProjectDir.newFile("Visited.java");
+        File unvisited = testProjectDir.newFile("Unvisited.java");
+        TodoIndexCache full = TodoIndexCache.load(index, "settings");
+        full.todos(visited, extractor);
+        full.todos(unvisited, extractor);
+        full.save();
+
+        TodoIndexCache partial = TodoIndexCache.load(index, "settings");
+        partial.todos(visited, extractor);
+        partial.retainUnvisited();
+        partial.save();
+        assertTrue(TodoIndexCache.load(index, "settings").isUnchanged(unvisited));
+
+        TodoIndexCache dropping = TodoIndexCache.load(index, "settings");
+        dropping.todos(visited, extractor);
+        dropping.save();
+        assertFalse(TodoIndexCache.load(index, "settings").isUnchanged(unvisited));
+    }
+
+    @Test
+    public void archiveEntryPathsSurviveTheIndex() throws IOException {
+        File index = new File(testProjectDir.getRoot(), "build/todome/index.bin");
+        File archive = testProjectDir.newFile("lib-sources.jar");
+        Files.writeString(archive.toPath(), "archive");
+        TodoIndexCache.Extractor archiveExtractor = (file, hash) -> List.of(
+                new TodoModel("yahor", null, SourceArchive.entryPath(file, "com/example/A.java"), 1, 1),
+                new TodoModel("kate", null, SourceArchive.entryPath(file, "com/example/B.java"), 2, 1)
+        );
+
+        TodoIndexCache first = TodoIndexCache.load(index, "settings");
+        first.todos(archive, archiveExtractor);
+        first.save();
+
+        List<TodoModel> cached = TodoIndexCache.load(index, "settings").todos(archive, extractor);
+
+        assertEquals(0, extractions.get());
+        assertEquals(archive.getPath() + "!/com/example/A.java", cached.get(0).getFilePath());
+        assertEquals(archive.getPath() + "!/com/example/B.java", cached.get(1).getFilePath());
+    }
+}
@@ -0,0 +1,41 @@
+package com.yahorbarkouski.todome.scan;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TodoPrefilterTest {
+
+    @Test
+    public void findsTodoAtEveryAlignment() {
+        for (int padding = 0; padding < 24; padding++) {
+            String content = "x".repeat(padding) + "TODO" + "y".repeat(padding % 5);
+
+            assertTrue(content, TodoPrefilter.containsTodo(bytes(content)));
+        }
+    }
+
+    @Test
+    public void rejectsContentWithoutTodo() {
+        assertFalse(TodoPrefilter.containsTodo(bytes("")));
+        assertFalse(TodoPrefilter.containsTodo(bytes("TOD")));
+        assertFalse(TodoPrefilter.containsTodo(bytes("TTTTTTTTTTTTTTTTTODTODTOTODX todo Todo T O D O")));
+        assertFalse(TodoPrefilter.containsTodo(bytes("class Test { // TOD\nO\n}")));
+    }
+
+    @Test
+    public void respectsBufferLimit() {
+        ByteBuffer buffer = bytes("class Test {}  TODO");
+        buffer.limit(buffer.limit() - 1);
+
+        assertFalse(TodoPrefilter.containsTodo(buffer));
+    }
+
+    private static ByteBuffer bytes(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,85 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TodoReportTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    @Test
+    public void todosSurviveARoundTripRelativeToTheRoot() {
+        Path root = testProjectDir.getRoot().toPath();
+        File report = new File(testProjectDir.getRoot(), "build/todome/todos.bin");
+        String first = root.resolve("src/First.java").toString();
+        String second = root.resolve("src/Second.java").toString();
+
+        TodoReport.write(report, root, List.of(
+                new TodoModel("yahor", LocalDate.of(2023, 10, 10), first, 1, 1),
+                new TodoModel("unassigned", null, first, 7, 5),
+                new TodoModel("damna", LocalDate.of(2024, 1, 31), second, 3, 9)
+        ));
+
+        Path relocated = testProjectDir.getRoot().toPath().resolve("elsewhere");
+        List<TodoModel> todos = TodoReport.read(report, relocated);
+
+        assertEquals(3, todos.size());
+        assertEquals(relocated.resolve("src/First.java").toString(), todos.get(0).getFilePath());
+        assertEquals(relocated.resolve("src/First.java").toString(), todos.get(1).getFilePath());
+        assertEquals(relocated.resolve("src/Second.java").toString(), todos.get(2).getFilePath());
+        assertEquals("yahor", todos.get(0).getAssignee());
+        assertEquals(LocalDate.of(2023, 10, 10), todos.get(0).getDueDate());
+        assertNull(todos.get(1).getDueDate());
+        assertEquals(7, todos.get(1).getLineNumber());
+        assertEquals(5, todos.get(1).getColumnNumber());
+        assertEquals(LocalDate.of(2024, 1, 31), todos.get(2).getDueDate());
+    }
+
+    @Test
+    public void streamsTodosAsTheyAreConsumed() {
+        Path root = testProjectDir.getRoot().toPath();
+        File report = new File(testProjectDir.getRoot(), "todos.bin");
+        try (TodoReport.Writer writer = TodoReport.open(report, root)) {
+            for (int line = 1; line <= 1000; line++) {
+                writer.accept(new TodoModel("yahor", null, root.resolve("Test.java").toString(), line, 1));
+            }
+        }
+
+        try (Stream<TodoModel> todos = TodoReport.stream(report, root)) {
+            assertEquals(List.of(1, 2, 3), todos.limit(3).map(TodoModel::getLineNumber).toList());
+        }
+        assertEquals(1000, TodoReport.read(report, root).size());
+        assertFalse(TodoReport.isIncomplete(report));
+
+        TodoReport.write(report, root, List.of());
+        assertEquals(List.of(), TodoReport.read(report, root));
+    }
+
+    @Test
+    public void incompleteReportEndsAtItsLastTodo() {
+        Path root = testProjectDir.getRoot().toPath();
+        File report = new File(testProjectDir.getRoot(), "todos.bin");
+        try (TodoReport.Writer writer = TodoReport.open(report, root)) {
+            writer.accept(new TodoModel("yahor", null, root.resolve("Test.java").toString(), 1, 1));
+            writer.accept(new TodoModel("yahor", null, root.resolve("Test.java").toString(), 2, 1));
+            writer.markIncomplete();
+        }
+
+        assertTrue(TodoReport.isIncomplete(report));
+        assertEquals(List.of(1, 2), TodoReport.read(report, root).stream().map(TodoModel::getLineNumber).toList());
+    }
+}
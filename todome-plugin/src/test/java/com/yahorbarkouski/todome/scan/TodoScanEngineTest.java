@@ -0,0 +1,126 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TodoScanEngineTest {
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    @Test
+    public void scanOrderDoesNotDependOnParallelism() throws IOException {
+        for (int dir = 0; dir < 12; dir++) {
+            File nested = testProjectDir.newFolder("module" + dir, "src");
+            for (int file = 0; file < 20; file++) {
+                Files.writeString(new File(nested, "Source" + file + ".java").toPath(), "class A {}");
+                Files.writeString(new File(nested, "notes" + file + ".txt").toPath(), "ignored");
+            }
+        }
+
+        List<String> sequential = scannedPaths(1);
+        List<String> parallel = scannedPaths(8);
+
+        assertEquals(12 * 20, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void sinkReceivesTodosInPathOrderAndCanEndTheScan() throws IOException {
+        for (int file = 0; file < 100; file++) {
+            testProjectDir.newFile(String.format("Source%03d.java", file));
+        }
+        TodoScanEngine engine = new TodoScanEngine(
+                4,
+                file -> true,
+                file -> List.of(new TodoModel("unassigned", null, file.getPath(), 1, 1))
+        );
+
+        List<String> received = new ArrayList<>();
+        try {
+            engine.scan(files(testProjectDir.getRoot()), todo -> {
+                received.add(new File(todo.getFilePath()).getName());
+                if (received.size() == 10) throw new IllegalStateException("enough");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("enough", e.getMessage());
+        }
+
+        assertEquals(10, received.size());
+        for (int file = 0; file < 10; file++) {
+            assertEquals(String.format("Source%03d.java", file), received.get(file));
+        }
+    }
+
+    @Test
+    public void sinkStopsTheScanWithTheSameTodosWhateverTheParallelism() throws IOException {
+        for (int file = 0; file < 100; file++) {
+            testProjectDir.newFile(String.format("Source%03d.java", file));
+        }
+
+        for (int parallelism : new int[]{1, 4}) {
+            AtomicInteger scannedFiles = new AtomicInteger();
+            TodoScanEngine engine = new TodoScanEngine(parallelism, file -> true, file -> {
+                scannedFiles.incrementAndGet();
+                return List.of(
+                        new TodoModel("unassigned", null, file.getPath(), 1, 1),
+                        new TodoModel("unassigned", null, file.getPath(), 2, 1)
+                );
+            });
+
+            List<TodoModel> received = new ArrayList<>();
+            boolean complete = engine.scanWhile(files(testProjectDir.getRoot()), todo -> {
+                received.add(todo);
+                return received.size() < 5;
+            });
+
+            assertFalse(complete);
+            assertEquals(5, received.size());
+            assertEquals("Source002.java", new File(received.get(4).getFilePath()).getName());
+            assertEquals(1, received.get(4).getLineNumber());
+            if (parallelism == 1) {
+                assertEquals(3, scannedFiles.get());
+            }
+            assertTrue(scannedFiles.get() < 100);
+        }
+    }
+
+    private List<String> scannedPaths(int parallelism) {
+        TodoScanEngine engine = new TodoScanEngine(
+                parallelism,
+                file -> file.getName().endsWith(".java"),
+                file -> List.of(new TodoModel("unassigned", null, file.getPath(), 1, 1))
+        );
+        return engine.scan(files(testProjectDir.getRoot())).stream().map(TodoModel::getFilePath).toList();
+    }
+
+    private static List<File> files(File dir) {
+        List<File> files = new ArrayList<>();
+        for (File file : Objects.requireNonNull(dir.listFiles())) {
+            if (file.isDirectory()) {
+                files.addAll(files(file));
+            } else {
+                files.add(file);
+            }
+        }
+        Collections.shuffle(files);
+        return files;
+    }
+}
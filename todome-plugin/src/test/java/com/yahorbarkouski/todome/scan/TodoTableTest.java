@@ -0,0 +1,66 @@
+package com.yahorbarkouski.todome.scan;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TodoTableTest {
+
+    @Test
+    public void rowsAreReadBackAsTheTodosTheyStore() {
+        TodoTable table = new TodoTable();
+        for (int line = 1; line <= 1000; line++) {
+            table.add(new TodoModel("yahor", line % 2 == 0 ? LocalDate.of(2030, 1, 1) : null, "src/Test.java", line, 3));
+        }
+
+        assertEquals(1000, table.size());
+        TodoModel todo = table.todo(1);
+        assertEquals("yahor", todo.getAssignee());
+        assertEquals(LocalDate.of(2030, 1, 1), todo.getDueDate());
+        assertEquals("src/Test.java", todo.getFilePath());
+        assertEquals(2, todo.getLineNumber());
+        assertEquals(3, todo.getColumnNumber());
+        assertNull(table.todo(0).getDueDate());
+        assertEquals(TodoTable.NO_DUE_DATE, table.epochDay(0));
+        assertSame(table.todo(0).getFilePath(), table.todo(999).getFilePath());
+    }
+
+    @Test
+    public void rangesAreListedAsViews() {
+        TodoTable table = new TodoTable();
+        int first = table.addAll(List.of(
+                new TodoModel("a", null, "A.java", 1, 1),
+                new TodoModel("b", null, "B.java", 2, 1)
+        ));
+        table.add(new TodoModel("c", null, "C.java", 3, 1));
+
+        List<TodoModel> todos = table.todos(first, first + 2);
+        assertEquals(2, todos.size());
+        assertEquals("B.java", todos.get(1).getFilePath());
+    }
+
+    @Test
+    public void rowsAreSortedStablyByPathRank() {
+        TodoTable table = new TodoTable();
+        for (String path : new String[]{"C.java", "A.java", "B.java", "A.java", "C.java"}) {
+            table.add("yahor", null, path, table.size(), 1);
+        }
+
+        int[] ranks = table.pathRanks();
+        int[] rows = table.sortedRows((left, right) -> Integer.compare(ranks[left], ranks[right]));
+
+        assertArrayEquals(new int[]{1, 3, 2, 0, 4}, rows);
+        assertEquals(
+                List.of("A.java", "A.java", "B.java", "C.java", "C.java"),
+                Arrays.stream(rows).mapToObj(table::filePath).toList()
+        );
+    }
+}
@@ -0,0 +1,66 @@
+package com.yahorbarkouski.todome.task;
+
+import com.yahorbarkouski.todome.model.TodoModel;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class TopTodosTest {
+
+    @Test
+    public void keepsTheFirstTodosInOrder() {
+        TopTodos top = new TopTodos(true, 3);
+        IntStream.of(5, 1, 9, 3, 7, 2, 8).forEach(day -> top.accept(todo(day, "Test.java", 1)));
+
+        assertEquals(List.of(1, 2, 3), top.sorted().stream().map(todo -> todo.getDueDate().getDayOfMonth()).toList());
+    }
+
+    @Test
+    public void todosSharingADueDateAreOrderedByPathAndLine() {
+        TopTodos top = new TopTodos(true, Integer.MAX_VALUE);
+        top.accept(todo(1, "B.java", 2));
+        top.accept(todo(1, "C.java", 1));
+        top.accept(todo(1, "A.java", 7));
+        top.accept(todo(1, "B.java", 1));
+
+        assertEquals(
+                List.of("A.java:7", "B.java:1", "B.java:2", "C.java:1"),
+                top.sorted().stream().map(todo -> todo.getFilePath() + ":" + todo.getLineNumber()).toList()
+        );
+    }
+
+    @Test
+    public void descendingOrderOnlyReversesDueDates() {
+        TopTodos top = new TopTodos(false, 3);
+        top.accept(todo(1, "A.java", 1));
+        top.accept(todo(2, "B.java", 1));
+        top.accept(todo(2, "A.java", 1));
+        top.accept(todo(3, "C.java", 1));
+
+        assertEquals(List.of("C.java", "A.java", "B.java"), top.sorted().stream().map(TodoModel::getFilePath).toList());
+    }
+
+    @Test
+    public void noTodoSharingADueDateIsLost() {
+        TopTodos all = new TopTodos(true, Integer.MAX_VALUE);
+        TopTodos limited = new TopTodos(true, 100);
+        for (int line = 50_000; line > 0; line--) {
+            all.accept(todo(1, "Test.java", line));
+            limited.accept(todo(1, "Test.java", line));
+        }
+
+        List<TodoModel> sorted = all.sorted();
+        assertEquals(50_000, sorted.size());
+        assertEquals(1, sorted.get(0).getLineNumber());
+        assertEquals(50_000, sorted.get(49_999).getLineNumber());
+        assertEquals(IntStream.rangeClosed(1, 100).boxed().toList(), limited.sorted().stream().map(TodoModel::getLineNumber).toList());
+    }
+
+    private static TodoModel todo(int day, String path, int line) {
+        return new TodoModel("yahor", LocalDate.of(2030, 1, day), path, line, 1);
+    }
+}